@@ -1,15 +1,43 @@
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class AdjacencyListGraph<T> implements Graph<T> {
 
-    private Map<T, List<T>> adjacencyList;
+    private Map<T, AdjacencySet<T>> adjacencyList;
+
+    // Indice inverso: para cada vertice guarda los vertices que tienen una arista
+    // hacia el, asi las consultas de aristas entrantes no recorren todo el grafo.
+    private Map<T, AdjacencySet<T>> predecessorList;
+
+    // Cantidad de cambios estructurales, para que quien guarde resultados
+    // calculados sobre el grafo sepa cuando dejan de ser validos.
+    private int modifications;
 
     public AdjacencyListGraph() {
         adjacencyList = new HashMap<>();
+        predecessorList = new HashMap<>();
+    }
+
+    /**
+     * Crea un grafo vacio con espacio reservado para la cantidad de vertices
+     * esperada, para no redimensionar las tablas durante una carga grande.
+     *
+     * @param expectedVertices La cantidad de vertices esperada.
+     */
+    public AdjacencyListGraph(int expectedVertices) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, expectedVertices * 4L / 3 + 1);
+        adjacencyList = new HashMap<>(capacity);
+        predecessorList = new HashMap<>(capacity);
     }
 
     /**
@@ -24,7 +52,9 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return false;
         }
 
-        adjacencyList.put(vertex, new ArrayList<>());
+        adjacencyList.put(vertex, new AdjacencySet<>());
+        predecessorList.put(vertex, new AdjacencySet<>());
+        modifications++;
         return true;
     }
 
@@ -37,7 +67,7 @@ public class AdjacencyListGraph<T> implements Graph<T> {
      */
     public boolean connect(T from, T to) {
 
-        if (from == to) {
+        if (Objects.equals(from, to)) {
             return false;
         }
 
@@ -45,16 +75,104 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return false;
         }
 
-        List<T> successors = adjacencyList.get(from);
-
-        if (successors.contains(to)) {
+        // El conjunto de sucesores rechaza las aristas repetidas.
+        if (!adjacencyList.get(from).add(to)) {
             return false;
         }
 
-        successors.add(to);
+        predecessorList.get(to).add(from);
+        modifications++;
         return true;
     }
 
+    /**
+     * Agrega las aristas sources[i] -> targets[i] en bloque.
+     *
+     * Las aristas se codifican como pares de enteros y se ordenan una sola vez,
+     * lo que las agrupa por origen y deja juntas las repetidas. Asi se conoce
+     * el grado final de cada vertice y sus listas se reservan de una vez.
+     *
+     * @param sources Los vertices de origen.
+     * @param targets Los vertices de destino, en la misma posicion que su origen.
+     * @return La cantidad de aristas que se agregaron.
+     */
+    public int connectAll(List<T> sources, List<T> targets) {
+        Map<T, Integer> ids = new HashMap<>();
+        List<T> vertices = new ArrayList<>();
+        long[] edges = new long[sources.size()];
+        int count = 0;
+
+        // Codifica cada arista valida como (origen << 32) | destino.
+        for (int i = 0; i < sources.size(); i++) {
+            T from = sources.get(i);
+            T to = targets.get(i);
+
+            if (Objects.equals(from, to) || !this.contains(from) || !this.contains(to)) {
+                continue;
+            }
+
+            edges[count++] = ((long) idOf(from, ids, vertices) << 32) | idOf(to, ids, vertices);
+        }
+
+        Arrays.sort(edges, 0, count);
+
+        // Elimina las repetidas y cuenta el grado de cada vertice.
+        int unique = 0;
+        int[] outDegree = new int[vertices.size()];
+        int[] inDegree = new int[vertices.size()];
+
+        for (int i = 0; i < count; i++) {
+            if (unique > 0 && edges[unique - 1] == edges[i]) {
+                continue;
+            }
+            edges[unique++] = edges[i];
+            outDegree[(int) (edges[i] >>> 32)]++;
+            inDegree[(int) edges[i]]++;
+        }
+
+        for (int id = 0; id < vertices.size(); id++) {
+            T vertex = vertices.get(id);
+            AdjacencySet<T> successors = adjacencyList.get(vertex);
+            AdjacencySet<T> predecessors = predecessorList.get(vertex);
+            successors.ensureCapacity(successors.size() + outDegree[id]);
+            predecessors.ensureCapacity(predecessors.size() + inDegree[id]);
+        }
+
+        int added = 0;
+        for (int i = 0; i < unique; i++) {
+            T from = vertices.get((int) (edges[i] >>> 32));
+            T to = vertices.get((int) edges[i]);
+
+            // El conjunto descarta las aristas que ya estaban en el grafo.
+            if (adjacencyList.get(from).add(to)) {
+                predecessorList.get(to).add(from);
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            modifications++;
+        }
+
+        return added;
+    }
+
+    /**
+     * Devuelve el identificador temporal del vertice, asignandole uno nuevo si
+     * no lo tenia.
+     */
+    private static <T> int idOf(T vertex, Map<T, Integer> ids, List<T> vertices) {
+        Integer id = ids.get(vertex);
+
+        if (id == null) {
+            id = vertices.size();
+            ids.put(vertex, id);
+            vertices.add(vertex);
+        }
+
+        return id;
+    }
+
     /**
      * Elimina la arista del vertice from al vertice to.
      *
@@ -64,7 +182,7 @@ public class AdjacencyListGraph<T> implements Graph<T> {
      */
     public boolean disconnect(T from, T to) {
 
-        if (from == to) {
+        if (Objects.equals(from, to)) {
             return false;
         }
 
@@ -72,12 +190,12 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return false;
         }
 
-        List<T> successors = adjacencyList.get(from);
-        if (!successors.contains(to)) {
+        if (!adjacencyList.get(from).remove(to)) {
             return false;
         }
 
-        successors.remove(to);
+        predecessorList.get(to).remove(from);
+        modifications++;
         return true;
     }
 
@@ -95,43 +213,37 @@ public class AdjacencyListGraph<T> implements Graph<T> {
     }
 
     /**
-     * Devuelve una lista con los vertices que tienen una arista dirigida hacia to.
+     * Devuelve una copia con los vertices que tienen una arista dirigida hacia
+     * to. Se puede modificar el grafo mientras se recorre la copia; para
+     * recorrer sin copiar se usa forEachInNeighbor.
      *
      * @param to El vertice del que se obtendrán las aristas entrantes.
      * @return Una lista con los vertices.
      */
     public List<T> getInwardEdges(T to) {
 
-        if (!this.contains(to)) {
-            return null;
-        }
-
-        List<T> inwardEdges = new ArrayList<>();
-
-        // Recorre la lista de adyacencias.
-        for (T vertex : adjacencyList.keySet()) {
+        // Obtiene la lista de predecesores del indice inverso.
+        List<T> predecessors = predecessorList.get(to);
 
-            // Verifica si esta en la lista de sucesores y si esta lo agrega.
-            if (adjacencyList.get(vertex).contains(to)) {
-                inwardEdges.add(vertex);
-            }
+        if (predecessors == null) {
+            return null;
         }
 
-        return inwardEdges;
+        return new ArrayList<>(predecessors);
     }
 
     /**
-     * Devuelve una lista con los vertices a los que from tiene una arista dirigida.
+     * Devuelve una copia con los vertices a los que from tiene una arista
+     * dirigida. Se puede modificar el grafo mientras se recorre la copia; para
+     * recorrer sin copiar se usa forEachOutNeighbor. Los sucesores estan en
+     * el orden en que se conectaron mientras no se desconecte ninguno; al
+     * desconectar, el ultimo sucesor pasa al lugar del eliminado.
      *
      * @param from El vertice del que se obtendrán las aristas salientes.
      * @return Una lista con los vertices.
      */
     public List<T> getOutwardEdges(T from) {
 
-        if (!this.contains(from)) {
-            return null;
-        }
-
         // Obtiene la lista de sucesores del vertice from.
         List<T> successors = adjacencyList.get(from);
 
@@ -139,7 +251,45 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return null;
         }
 
-        return successors;
+        return new ArrayList<>(successors);
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice sin crear listas
+     * intermedias.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        AdjacencySet<T> successors = adjacencyList.get(vertex);
+
+        if (successors == null) {
+            return;
+        }
+
+        for (int i = 0; i < successors.size(); i++) {
+            action.accept(successors.get(i));
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice sin crear listas
+     * intermedias.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        AdjacencySet<T> predecessors = predecessorList.get(vertex);
+
+        if (predecessors == null) {
+            return;
+        }
+
+        for (int i = 0; i < predecessors.size(); i++) {
+            action.accept(predecessors.get(i));
+        }
     }
 
     /**
@@ -154,15 +304,12 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return null;
         }
 
-        List<T> connectedVertices = new ArrayList<>();
-
-        for (T to : getOutwardEdges(vertex)) {
-            connectedVertices.add(to);
-        }
+        AdjacencySet<T> successors = adjacencyList.get(vertex);
+        AdjacencySet<T> predecessors = predecessorList.get(vertex);
 
-        for (T from : getInwardEdges(vertex)) {
-            connectedVertices.add(from);
-        }
+        List<T> connectedVertices = new ArrayList<>(successors.size() + predecessors.size());
+        connectedVertices.addAll(successors);
+        connectedVertices.addAll(predecessors);
 
         return connectedVertices;
     }
@@ -177,6 +324,26 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         return new ArrayList<>(adjacencyList.keySet());
     }
 
+    /**
+     * Aplica la accion a cada vertice del grafo sin copiar el conjunto de
+     * vertices.
+     *
+     * @param action La accion a aplicar.
+     */
+    public void forEachVertex(Consumer<? super T> action) {
+        adjacencyList.keySet().forEach(action);
+    }
+
+    /**
+     * Devuelve un iterador de solo lectura sobre los vertices del grafo, sin
+     * copiarlos.
+     *
+     * @return El iterador.
+     */
+    public Iterator<T> vertexIterator() {
+        return Collections.unmodifiableSet(adjacencyList.keySet()).iterator();
+    }
+
     /**
      * Elimina el vertice del grafo.
      *
@@ -189,17 +356,34 @@ public class AdjacencyListGraph<T> implements Graph<T> {
             return false;
         }
 
-        // Elimina el vertice de la lista de adyacencias.
-        adjacencyList.remove(vertex);
+        // Elimina el vertice de la lista de adyacencias y del indice inverso.
+        AdjacencySet<T> successors = adjacencyList.remove(vertex);
+        AdjacencySet<T> predecessors = predecessorList.remove(vertex);
+
+        // Elimina el vertice de la lista de predecesores de sus sucesores.
+        for (T to : successors) {
+            predecessorList.get(to).remove(vertex);
+        }
 
-        // Elimina el vertice de la lista de sucesores de todos los vertices.
-        for (List<T> successors : adjacencyList.values()) {
-            successors.remove(vertex);
+        // Elimina el vertice de la lista de sucesores de sus predecesores.
+        for (T from : predecessors) {
+            adjacencyList.get(from).remove(vertex);
         }
 
+        modifications++;
         return true;
     }
 
+    /**
+     * Devuelve la cantidad de cambios estructurales (vertices o aristas
+     * agregados o eliminados) desde que se creo el grafo.
+     *
+     * @return La cantidad de cambios.
+     */
+    public int modificationCount() {
+        return modifications;
+    }
+
     /**
      * Devuelve la cantidad de vertices que contiene el grafo.
      *
@@ -219,8 +403,11 @@ public class AdjacencyListGraph<T> implements Graph<T> {
     public AdjacencyListGraph<T> subgraph(Collection<T> vertices) {
         AdjacencyListGraph<T> subgraph = new AdjacencyListGraph<>();
 
+        // Conjunto para consultar la pertenencia en O(1) aunque llegue una lista.
+        Set<T> members = new HashSet<>(vertices);
+
         // Agrega los vértices especificados al subgrafo.
-        for (T vertex : vertices) {
+        for (T vertex : members) {
 
             if (this.contains(vertex)) {
                 subgraph.add(vertex);
@@ -228,9 +415,9 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         }
 
         // Agrega las aristas del subgrafo original al nuevo subgrafo.
-        for (T vertex : subgraph.getAllVertices()) {
-            for (T to : getOutwardEdges(vertex)) {
-                if (vertices.contains(to)) {
+        for (T vertex : subgraph.adjacencyList.keySet()) {
+            for (T to : adjacencyList.get(vertex)) {
+                if (members.contains(to)) {
                     subgraph.connect(vertex, to);
                 }
             }
@@ -239,6 +426,49 @@ public class AdjacencyListGraph<T> implements Graph<T> {
         return subgraph;
     }
 
+    /**
+     * Devuelve una copia inmutable del grafo en formato CSR, sin aristas
+     * inversas.
+     *
+     * @return La copia CSR del grafo.
+     */
+    public CsrGraph<T> toCsr() {
+        return toCsr(false);
+    }
+
+    /**
+     * Devuelve una copia inmutable del grafo en formato CSR, con identificadores
+     * enteros densos para cada vertice.
+     *
+     * @param withReverse True si tambien se construye el CSR de predecesores.
+     * @return La copia CSR del grafo.
+     */
+    public CsrGraph<T> toCsr(boolean withReverse) {
+        List<T> vertices = new ArrayList<>(adjacencyList.keySet());
+        Map<T, Integer> ids = new HashMap<>(vertices.size() * 2);
+
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+
+        // Calcula el inicio de la fila de cada vertice.
+        int[] offsets = new int[vertices.size() + 1];
+        for (int i = 0; i < vertices.size(); i++) {
+            offsets[i + 1] = offsets[i] + adjacencyList.get(vertices.get(i)).size();
+        }
+
+        // Copia los sucesores traducidos a identificadores.
+        int[] targets = new int[offsets[vertices.size()]];
+        for (int i = 0; i < vertices.size(); i++) {
+            int edge = offsets[i];
+            for (T to : adjacencyList.get(vertices.get(i))) {
+                targets[edge++] = ids.get(to);
+            }
+        }
+
+        return new CsrGraph<>(vertices, ids, offsets, targets, withReverse);
+    }
+
     /**
      * Devuelve la lista de adyacencias de grafo impresa
      */
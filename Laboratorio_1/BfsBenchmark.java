@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+//Correr de la siguiente forma: javac *.java && java BfsBenchmark [vertices] [gradoPromedio]
+//O sobre el archivo de relaciones: java BfsBenchmark --file input.txt
+//Por ejemplo: java -Xmx8g BfsBenchmark 10000000 16
+
+public class BfsBenchmark {
+
+    // Cantidad de origenes medidos y repeticiones de cada uno; la primera
+    // repeticion es de calentamiento y no se reporta.
+    private static final int SOURCES = 8;
+    private static final int ITERATIONS = 3;
+
+    public static void main(String[] args) throws IOException {
+
+        CsrGraph<?> csr;
+        if (args.length > 1 && args[0].equals("--file")) {
+            csr = EdgeListParser.load(Path.of(args[1]));
+        } else {
+            int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+            int degree = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+            csr = generate(vertices, degree);
+        }
+
+        int n = csr.vertexCount();
+        Random random = new Random(7);
+        int[] sources = new int[SOURCES];
+        for (int i = 0; i < SOURCES; i++) {
+            sources[i] = random.nextInt(n);
+        }
+
+        System.out.printf("vertices=%d aristas=%d%n", n, csr.edgeCount());
+        System.out.printf("%-22s %7s %12s %10s%n", "implementacion", "hilos", "ms/bfs", "speedup");
+
+        // Referencia: el BFS secuencial actual, con sus distancias para comparar
+        BfsEngine engine = new BfsEngine(csr);
+        int[][] expected = new int[SOURCES][n];
+        long baseline = 0;
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            for (int s = 0; s < SOURCES; s++) {
+                long start = System.nanoTime();
+                engine.run(sources[s]);
+                long elapsed = System.nanoTime() - start;
+
+                if (iteration > 0) {
+                    baseline += elapsed;
+                } else {
+                    for (int v = 0; v < n; v++) {
+                        expected[s][v] = engine.getDistance(v);
+                    }
+                }
+            }
+        }
+
+        report("BfsEngine", 1, baseline, baseline);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelBfs bfs = new ParallelBfs(csr, pool);
+            long total = 0;
+
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                for (int s = 0; s < SOURCES; s++) {
+                    long start = System.nanoTime();
+                    bfs.run(sources[s]);
+                    long elapsed = System.nanoTime() - start;
+
+                    if (iteration > 0) {
+                        total += elapsed;
+                    } else {
+                        check(bfs, expected[s]);
+                    }
+                }
+            }
+
+            pool.shutdown();
+            report("ParallelBfs", threads, total, baseline);
+        }
+    }
+
+    /**
+     * Imprime una fila de resultados.
+     */
+    private static void report(String name, int threads, long nanos, long baseline) {
+        double runs = SOURCES * (ITERATIONS - 1);
+        System.out.printf("%-22s %7d %12.2f %9.2fx%n", name, threads, nanos / runs / 1e6, (double) baseline / nanos);
+    }
+
+    /**
+     * Verifica que el BFS paralelo dio las mismas distancias que el
+     * secuencial.
+     */
+    private static void check(ParallelBfs bfs, int[] expected) {
+        for (int v = 0; v < expected.length; v++) {
+            if (bfs.getDistance(v) != expected[v]) {
+                throw new IllegalStateException("Distancia distinta en el vertice " + v);
+            }
+        }
+    }
+
+    /**
+     * Genera un grafo simetrico con n vertices y grado promedio degree. Uno de
+     * los extremos de cada arista se elige con probabilidad proporcional a
+     * 1 / k para el vertice de rango k, como en una red social.
+     *
+     * @param n      La cantidad de vertices.
+     * @param degree El grado promedio.
+     * @return El grafo en formato CSR.
+     */
+    private static CsrGraph<Integer> generate(int n, int degree) {
+        int edges = (int) Math.min(Integer.MAX_VALUE / 2, (long) n * degree / 2);
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int[] offsets = new int[n + 1];
+        Random random = new Random(42);
+
+        for (int i = 0; i < edges; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble())) - 1);
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Cada arista se guarda en ambos sentidos
+        int[] position = new int[n];
+        int[] targets = new int[edges * 2];
+        for (int i = 0; i < edges; i++) {
+            targets[offsets[from[i]] + position[from[i]]++] = to[i];
+            targets[offsets[to[i]] + position[to[i]]++] = from[i];
+        }
+
+        List<Integer> vertices = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            vertices.add(v);
+        }
+
+        return new CsrGraph<>(vertices, offsets, targets, false);
+    }
+}
@@ -0,0 +1,476 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Motor de BFS reutilizable sobre un CsrGraph.
+ *
+ * Trabaja con los identificadores enteros del CSR y guarda todo su estado en
+ * arreglos que se reservan una vez: colas de enteros y marcas de visitado con
+ * sello de epoca. Cada consulta incrementa la epoca en lugar de limpiar las
+ * marcas, asi que una consulta no reserva memoria ni recorre los arreglos
+ * completos. Una instancia no se debe usar desde varios hilos a la vez.
+ */
+public class BfsEngine {
+
+    /**
+     * Cota inferior de la distancia entre dos vertices, usada para podar la
+     * busqueda.
+     */
+    public interface LowerBound {
+
+        /**
+         * Devuelve una cota inferior de la distancia de from a to, o
+         * Integer.MAX_VALUE si to no es alcanzable.
+         */
+        int lowerBound(int from, int to);
+    }
+
+    private int vertexCount;
+
+    private int[] offsets;
+    private int[] targets;
+    private int[] reverseOffsets;
+    private int[] reverseTargets;
+
+    // Estado de la busqueda desde el origen.
+    private int[] forwardMark;
+    private int[] forwardDistance;
+    private int[] forwardParent;
+    private int[] forwardQueue;
+    private int forwardHead;
+    private int forwardTail;
+
+    // Estado de la busqueda desde el destino.
+    private int[] backwardMark;
+    private int[] backwardDistance;
+    private int[] backwardParent;
+    private int[] backwardQueue;
+    private int backwardHead;
+    private int backwardTail;
+
+    // Profundidad del ultimo nivel expandido de cada lado.
+    private int forwardDepth;
+    private int backwardDepth;
+
+    // Datos de la consulta bidireccional en curso.
+    private int source;
+    private int target;
+    private int limit;
+    private LowerBound bound;
+
+    // Vertice donde se cruzaron las dos busquedas en el camino mas corto.
+    private int meet;
+
+    // Cantidad de caminos mas cortos desde el origen, se reserva al usarla.
+    private long[] pathCount;
+
+    private int epoch;
+
+    /**
+     * Crea el motor. Si el CSR no tiene aristas inversas se asume que el grafo
+     * es simetrico y la busqueda hacia atras usa las aristas salientes.
+     *
+     * @param graph El grafo en formato CSR.
+     */
+    public BfsEngine(CsrGraph<?> graph) {
+        vertexCount = graph.vertexCount();
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+
+        if (graph.hasReverse()) {
+            reverseOffsets = graph.getReverseOffsets();
+            reverseTargets = graph.getReverseTargets();
+        } else {
+            reverseOffsets = offsets;
+            reverseTargets = targets;
+        }
+
+        // Cada vertice entra una sola vez en cada cola, asi que basta con n
+        // posiciones y la cola nunca da la vuelta.
+        forwardMark = new int[vertexCount];
+        forwardDistance = new int[vertexCount];
+        forwardParent = new int[vertexCount];
+        forwardQueue = new int[vertexCount];
+        backwardMark = new int[vertexCount];
+        backwardDistance = new int[vertexCount];
+        backwardParent = new int[vertexCount];
+        backwardQueue = new int[vertexCount];
+    }
+
+    /**
+     * Calcula la distancia de source a target con un BFS bidireccional que
+     * siempre expande la frontera mas pequena.
+     *
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @return La distancia, o -1 si target no es alcanzable.
+     */
+    public int distance(int source, int target) {
+        return distance(source, target, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Calcula la distancia de source a target sabiendo que existe un camino de
+     * longitud limit. La busqueda se corta en cuanto ya no puede encontrar uno
+     * mas corto, y descarta los vertices v donde la distancia recorrida mas
+     * bound.lowerBound hasta el otro extremo supera limit.
+     *
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @param limit  Longitud de un camino conocido, o Integer.MAX_VALUE.
+     * @param bound  Cota inferior para podar, o null.
+     * @return La distancia, limit si no hay un camino mas corto, o -1 si target
+     *         no es alcanzable y no se dio un limite.
+     */
+    public int distance(int source, int target, int limit, LowerBound bound) {
+
+        if (source == target) {
+            return 0;
+        }
+
+        nextEpoch();
+
+        this.source = source;
+        this.target = target;
+        this.limit = limit;
+        this.bound = bound;
+        forwardDepth = 0;
+        backwardDepth = 0;
+
+        forwardHead = 0;
+        forwardTail = 0;
+        forwardQueue[forwardTail++] = source;
+        forwardMark[source] = epoch;
+        forwardDistance[source] = 0;
+
+        backwardHead = 0;
+        backwardTail = 0;
+        backwardQueue[backwardTail++] = target;
+        backwardMark[target] = epoch;
+        backwardDistance[target] = 0;
+
+        while (forwardHead < forwardTail && backwardHead < backwardTail) {
+
+            int best;
+
+            if (forwardTail - forwardHead <= backwardTail - backwardHead) {
+                best = expandForwardLevel();
+                forwardDepth++;
+            } else {
+                best = expandBackwardLevel();
+                backwardDepth++;
+            }
+
+            if (best != -1) {
+                return Math.min(best, limit);
+            }
+
+            // Sin cruce, todo camino tiene al menos forwardDepth + backwardDepth + 1
+            if (forwardDepth + backwardDepth + 1 >= limit) {
+                return limit;
+            }
+        }
+
+        return limit == Integer.MAX_VALUE ? -1 : limit;
+    }
+
+    /**
+     * Calcula un camino mas corto de source a target. Los padres se guardan
+     * durante la busqueda bidireccional, asi que solo agrega recorrer el
+     * camino encontrado.
+     *
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @return Los identificadores del camino, de source a target, o null si
+     *         target no es alcanzable.
+     */
+    public int[] path(int source, int target) {
+
+        if (source == target) {
+            return new int[] { source };
+        }
+
+        int length = distance(source, target);
+        if (length == -1) {
+            return null;
+        }
+
+        // Del punto de cruce hacia el origen y luego hacia el destino
+        int[] path = new int[length + 1];
+        int position = forwardDistance[meet];
+
+        for (int vertex = meet; position >= 0; position--) {
+            path[position] = vertex;
+            vertex = forwardParent[vertex];
+        }
+
+        position = forwardDistance[meet];
+        for (int vertex = meet; vertex != target;) {
+            vertex = backwardParent[vertex];
+            path[++position] = vertex;
+        }
+
+        return path;
+    }
+
+    /**
+     * Calcula hasta k caminos mas cortos distintos de source a target. Un BFS
+     * desde el origen cuenta los caminos mas cortos que llegan a cada
+     * vertice; el camino numero i se reconstruye desde el destino eligiendo en
+     * cada paso el predecesor del nivel anterior en cuyo rango cae i, asi no
+     * hay que explorar caminos que no llegan.
+     *
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @param k      La cantidad maxima de caminos.
+     * @return Los caminos, de source a target, o una lista vacia si target no
+     *         es alcanzable.
+     */
+    public List<int[]> shortestPaths(int source, int target, int k) {
+        List<int[]> paths = new ArrayList<>();
+
+        long count = countShortestPaths(source, target);
+        int length = getDistance(target);
+
+        for (long rank = 0; rank < Math.min(k, count); rank++) {
+            int[] path = new int[length + 1];
+            int vertex = target;
+            long index = rank;
+            path[length] = target;
+
+            for (int position = length - 1; position >= 0; position--) {
+                int level = forwardDistance[vertex] - 1;
+
+                for (int e = reverseOffsets[vertex]; e < reverseOffsets[vertex + 1]; e++) {
+                    int parent = reverseTargets[e];
+
+                    if (forwardMark[parent] != epoch || forwardDistance[parent] != level) {
+                        continue;
+                    }
+
+                    if (index < pathCount[parent]) {
+                        vertex = parent;
+                        break;
+                    }
+                    index -= pathCount[parent];
+                }
+
+                path[position] = vertex;
+            }
+
+            paths.add(path);
+        }
+
+        return paths;
+    }
+
+    /**
+     * Cuenta los caminos mas cortos de source a target con un BFS desde el
+     * origen que se detiene al terminar el nivel anterior al destino. Las
+     * distancias quedan disponibles en getDistance.
+     *
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @return La cantidad de caminos, saturada en Long.MAX_VALUE, o 0 si target
+     *         no es alcanzable.
+     */
+    public long countShortestPaths(int source, int target) {
+        if (pathCount == null) {
+            pathCount = new long[vertexCount];
+        }
+
+        nextEpoch();
+
+        forwardHead = 0;
+        forwardTail = 0;
+        forwardQueue[forwardTail++] = source;
+        forwardMark[source] = epoch;
+        forwardDistance[source] = 0;
+        pathCount[source] = 1;
+
+        while (forwardHead < forwardTail) {
+            int vertex = forwardQueue[forwardHead++];
+            int level = forwardDistance[vertex] + 1;
+
+            if (forwardMark[target] == epoch && level > forwardDistance[target]) {
+                break;
+            }
+
+            for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                int neighbor = targets[e];
+
+                if (forwardMark[neighbor] != epoch) {
+                    forwardMark[neighbor] = epoch;
+                    forwardDistance[neighbor] = level;
+                    pathCount[neighbor] = 0;
+                    forwardQueue[forwardTail++] = neighbor;
+                }
+
+                if (forwardDistance[neighbor] == level) {
+                    long sum = pathCount[neighbor] + pathCount[vertex];
+                    pathCount[neighbor] = sum < 0 ? Long.MAX_VALUE : sum;
+                }
+            }
+        }
+
+        return forwardMark[target] == epoch ? pathCount[target] : 0;
+    }
+
+    /**
+     * Recorre con BFS todo lo alcanzable desde source. Las distancias quedan
+     * disponibles en getDistance hasta la siguiente consulta.
+     *
+     * @param source Identificador del origen.
+     * @return La cantidad de vertices alcanzados, incluido el origen.
+     */
+    public int run(int source) {
+        nextEpoch();
+
+        forwardHead = 0;
+        forwardTail = 0;
+        forwardQueue[forwardTail++] = source;
+        forwardMark[source] = epoch;
+        forwardDistance[source] = 0;
+
+        while (forwardHead < forwardTail) {
+            int vertex = forwardQueue[forwardHead++];
+            int level = forwardDistance[vertex] + 1;
+
+            for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                int neighbor = targets[e];
+
+                if (forwardMark[neighbor] != epoch) {
+                    forwardMark[neighbor] = epoch;
+                    forwardDistance[neighbor] = level;
+                    forwardQueue[forwardTail++] = neighbor;
+                }
+            }
+        }
+
+        return forwardTail;
+    }
+
+    /**
+     * Devuelve la distancia desde el origen del ultimo run.
+     *
+     * @param vertex Identificador del vertice.
+     * @return La distancia, o -1 si no fue alcanzado.
+     */
+    public int getDistance(int vertex) {
+        return forwardMark[vertex] == epoch ? forwardDistance[vertex] : -1;
+    }
+
+    /**
+     * Devuelve la cantidad de vertices del grafo.
+     *
+     * @return La cantidad de vertices.
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Expande un nivel completo de la busqueda desde el origen.
+     *
+     * @return La distancia mas corta encontrada al cruzarse con la otra
+     *         busqueda, o -1 si no se cruzaron.
+     */
+    private int expandForwardLevel() {
+        int levelEnd = forwardTail;
+        int best = -1;
+
+        for (; forwardHead < levelEnd; forwardHead++) {
+            int vertex = forwardQueue[forwardHead];
+            int level = forwardDistance[vertex] + 1;
+
+            for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                int neighbor = targets[e];
+
+                if (forwardMark[neighbor] == epoch) {
+                    continue;
+                }
+
+                forwardMark[neighbor] = epoch;
+                forwardDistance[neighbor] = level;
+                forwardParent[neighbor] = vertex;
+
+                // Un vertice que no puede estar en un camino mas corto no se expande
+                if (bound != null && bound.lowerBound(neighbor, target) > limit - level) {
+                    continue;
+                }
+
+                if (backwardMark[neighbor] == epoch) {
+                    int total = level + backwardDistance[neighbor];
+                    if (best == -1 || total < best) {
+                        best = total;
+                        meet = neighbor;
+                    }
+                }
+
+                forwardQueue[forwardTail++] = neighbor;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Expande un nivel completo de la busqueda desde el destino, siguiendo las
+     * aristas entrantes.
+     *
+     * @return La distancia mas corta encontrada al cruzarse con la otra
+     *         busqueda, o -1 si no se cruzaron.
+     */
+    private int expandBackwardLevel() {
+        int levelEnd = backwardTail;
+        int best = -1;
+
+        for (; backwardHead < levelEnd; backwardHead++) {
+            int vertex = backwardQueue[backwardHead];
+            int level = backwardDistance[vertex] + 1;
+
+            for (int e = reverseOffsets[vertex]; e < reverseOffsets[vertex + 1]; e++) {
+                int neighbor = reverseTargets[e];
+
+                if (backwardMark[neighbor] == epoch) {
+                    continue;
+                }
+
+                backwardMark[neighbor] = epoch;
+                backwardDistance[neighbor] = level;
+                backwardParent[neighbor] = vertex;
+
+                // Un vertice que no puede estar en un camino mas corto no se expande
+                if (bound != null && bound.lowerBound(source, neighbor) > limit - level) {
+                    continue;
+                }
+
+                if (forwardMark[neighbor] == epoch) {
+                    int total = level + forwardDistance[neighbor];
+                    if (best == -1 || total < best) {
+                        best = total;
+                        meet = neighbor;
+                    }
+                }
+
+                backwardQueue[backwardTail++] = neighbor;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Avanza la epoca. Si da la vuelta se limpian las marcas una sola vez.
+     */
+    private void nextEpoch() {
+        epoch++;
+
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(forwardMark, 0);
+            Arrays.fill(backwardMark, 0);
+            epoch = 1;
+        }
+    }
+}
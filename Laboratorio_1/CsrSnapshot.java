@@ -0,0 +1,351 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Copia binaria de un CsrGraph de nombres en disco, para no volver a leer el
+ * archivo de texto en cada ejecucion.
+ *
+ * El archivo guarda, en orden little-endian:
+ *
+ * <pre>
+ * int   MAGIC, VERSION
+ * long  tamano y fecha de modificacion del archivo de texto de origen
+ * int   n, m, cantidad de bytes de los nombres
+ * int[] n + 1 inicios de cada nombre
+ * byte[] nombres en UTF-8, uno tras otro
+ * int[] n + 1 offsets del CSR
+ * int[] m targets del CSR
+ * long  CRC32C de todo lo anterior
+ * </pre>
+ *
+ * Los arreglos se leen en bloque, sin interpretar texto. Si el archivo de
+ * texto cambio de tamano o de fecha, o la copia esta danada o es de otra
+ * version, se descarta y se vuelve a leer el texto.
+ */
+public class CsrSnapshot {
+
+    private static final int MAGIC = 0x43535231; // "CSR1"
+    private static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private CsrSnapshot() {
+    }
+
+    /**
+     * Devuelve el grafo del archivo de relaciones desde su copia binaria, o lo
+     * lee con EdgeListParser y escribe la copia si no existe o ya no
+     * corresponde al texto.
+     *
+     * @param text     Ruta del archivo de relaciones.
+     * @param snapshot Ruta de la copia binaria.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    public static CsrGraph<String> load(Path text, Path snapshot) throws IOException {
+        return load(text, snapshot, Files.size(text));
+    }
+
+    /**
+     * Como load, pero con solo los primeros length bytes del archivo de
+     * relaciones. La copia guarda length como tamano de origen, asi que solo
+     * sirve para el texto completo si length es todo el archivo.
+     *
+     * @param text     Ruta del archivo de relaciones.
+     * @param snapshot Ruta de la copia binaria.
+     * @param length   Cantidad de bytes del texto a considerar.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    public static CsrGraph<String> load(Path text, Path snapshot, long length) throws IOException {
+        long size = length;
+        long modified = Files.getLastModifiedTime(text).toMillis();
+
+        CsrGraph<String> graph = read(snapshot, size, modified);
+        if (graph != null) {
+            return graph;
+        }
+
+        graph = EdgeListParser.load(text, size);
+
+        // Si no se puede escribir la copia se sigue con el grafo ya leido
+        try {
+            write(graph, snapshot, size, modified);
+        } catch (IOException e) {
+            System.err.println("No se pudo escribir " + snapshot + ": " + e.getMessage());
+        }
+
+        return graph;
+    }
+
+    /**
+     * Lee una copia binaria.
+     *
+     * @param snapshot Ruta de la copia.
+     * @param size     Tamano esperado del archivo de texto de origen.
+     * @param modified Fecha de modificacion esperada del texto, en ms.
+     * @return El grafo, o null si la copia no existe, no corresponde al texto
+     *         o esta danada.
+     */
+    public static CsrGraph<String> read(Path snapshot, long size, long modified) {
+
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != size
+                    || in.readLong() != modified) {
+                return null;
+            }
+
+            int n = in.readInt();
+            int m = in.readInt();
+            int nameLength = in.readInt();
+
+            // Descarta tamanos imposibles antes de reservar los arreglos
+            long expected = 36 + 4L * (n + 1) + nameLength + 4L * (n + 1) + 4L * m + 8;
+            if (n < 0 || m < 0 || nameLength < 0 || expected != channel.size()) {
+                return null;
+            }
+
+            int[] nameStart = new int[n + 1];
+            byte[] nameBytes = new byte[nameLength];
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[m];
+
+            in.readInts(nameStart);
+            in.readBytes(nameBytes);
+            in.readInts(offsets);
+            in.readInts(targets);
+
+            long checksum = in.checksum();
+            if (in.readLong() != checksum) {
+                return null;
+            }
+
+            String[] names = new String[n];
+            for (int v = 0; v < n; v++) {
+                names[v] = new String(nameBytes, nameStart[v], nameStart[v + 1] - nameStart[v], StandardCharsets.UTF_8);
+            }
+
+            return new CsrGraph<>(Arrays.asList(names), offsets, targets, false);
+        } catch (IOException | RuntimeException e) {
+            // Copia truncada o con datos incoherentes
+            return null;
+        }
+    }
+
+    /**
+     * Escribe la copia binaria de un grafo. Se escribe primero en un archivo
+     * temporal y luego se renombra, asi una escritura interrumpida nunca deja
+     * una copia a medias.
+     *
+     * @param graph    El grafo.
+     * @param snapshot Ruta de la copia.
+     * @param size     Tamano del archivo de texto de origen.
+     * @param modified Fecha de modificacion del texto, en ms.
+     */
+    public static void write(CsrGraph<String> graph, Path snapshot, long size, long modified) throws IOException {
+        int n = graph.vertexCount();
+
+        // Codifica los nombres en un solo arreglo
+        int[] nameStart = new int[n + 1];
+        byte[][] encoded = new byte[n][];
+        for (int v = 0; v < n; v++) {
+            encoded[v] = graph.getVertex(v).getBytes(StandardCharsets.UTF_8);
+            nameStart[v + 1] = nameStart[v] + encoded[v].length;
+        }
+
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(size);
+            out.writeLong(modified);
+            out.writeInt(n);
+            out.writeInt(graph.getTargets().length);
+            out.writeInt(nameStart[n]);
+
+            out.writeInts(nameStart);
+            for (byte[] name : encoded) {
+                out.writeBytes(name);
+            }
+            out.writeInts(graph.getOffsets());
+            out.writeInts(graph.getTargets());
+
+            out.flush();
+            out.writeLong(out.checksum());
+            out.flush();
+        }
+
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lectura en bloque desde un canal, acumulando el CRC32C de los bytes
+     * consumidos.
+     */
+    private static class Input {
+
+        private FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private CRC32C crc = new CRC32C();
+
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /**
+         * Se asegura de tener al menos count bytes sin consumir en el buffer.
+         */
+        private void require(int count) throws IOException {
+            if (buffer.remaining() >= count) {
+                return;
+            }
+
+            buffer.compact();
+            while (buffer.position() < count) {
+                if (channel.read(buffer) == -1) {
+                    throw new EOFException();
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Avanza count bytes sumandolos al CRC.
+         */
+        private void consume(int count) {
+            ByteBuffer consumed = buffer.duplicate();
+            consumed.limit(buffer.position() + count);
+            crc.update(consumed);
+            buffer.position(buffer.position() + count);
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            int value = buffer.getInt(buffer.position());
+            consume(4);
+            return value;
+        }
+
+        long readLong() throws IOException {
+            require(8);
+            long value = buffer.getLong(buffer.position());
+            consume(8);
+            return value;
+        }
+
+        void readInts(int[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                require(4);
+                int count = Math.min(values.length - done, buffer.remaining() / 4);
+                IntBuffer ints = buffer.asIntBuffer();
+                ints.get(values, done, count);
+                consume(count * 4);
+                done += count;
+            }
+        }
+
+        void readBytes(byte[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                require(1);
+                int count = Math.min(values.length - done, buffer.remaining());
+                buffer.duplicate().get(values, done, count);
+                consume(count);
+                done += count;
+            }
+        }
+
+        long checksum() {
+            return crc.getValue();
+        }
+    }
+
+    /**
+     * Escritura en bloque a un canal, acumulando el CRC32C de los bytes
+     * escritos.
+     */
+    private static class Output {
+
+        private FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private CRC32C crc = new CRC32C();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Escribe lo acumulado en el buffer y lo suma al CRC.
+         */
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void reserve(int count) throws IOException {
+            if (buffer.remaining() < count) {
+                flush();
+            }
+        }
+
+        void writeInt(int value) throws IOException {
+            reserve(4);
+            buffer.putInt(value);
+        }
+
+        void writeLong(long value) throws IOException {
+            reserve(8);
+            buffer.putLong(value);
+        }
+
+        void writeInts(int[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                reserve(4);
+                int count = Math.min(values.length - done, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, done, count);
+                buffer.position(buffer.position() + count * 4);
+                done += count;
+            }
+        }
+
+        void writeBytes(byte[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                reserve(1);
+                int count = Math.min(values.length - done, buffer.remaining());
+                buffer.put(values, done, count);
+                done += count;
+            }
+        }
+
+        long checksum() {
+            return crc.getValue();
+        }
+    }
+}
@@ -1,47 +1,108 @@
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DegreesOfSeparation {
-    public static void main(String[] args) throws FileNotFoundException {
 
-        // Lee los nombres de las personas de la línea de comandos
-        String name1 = args[0];
-        String name2 = args[1];
+    // Maxima cantidad de consultas que se agrupan en un mismo bloque.
+    private static final int BATCH_SIZE = 100000;
 
-        ArrayList<String> lines = readFile("input.txt");
+    // Cantidad de vertices de referencia para acotar las consultas por lotes.
+    private static final int LANDMARKS = 16;
 
-        // Cremos un nuevo grafo
-        AdjacencyListGraph<String> graph = new AdjacencyListGraph<>();
+    public static void main(String[] args) throws IOException, InterruptedException {
 
-        // Recorremos los datos para crear los vertices y las ariste del grafo
-        for (String line : lines) {
-
-            String[] name = line.split(" ");
+        // Modo incremental: java DegreesOfSeparation --incremental
+        // Responde consultas de la entrada estandar mientras input.txt crece
+        if (args[0].equals("--incremental")) {
+            IncrementalSeparation.main(new String[0]);
+            return;
+        }
 
-            // Si los nombres no estan en el grafo se agregan
-            if (!graph.contains(name[0]))
-                graph.add(name[0]);
-            if (!graph.contains(name[1]))
-                graph.add(name[1]);
+        // Cargamos la copia compacta para las busquedas desde input.csr, que
+        // solo se regenera si input.txt cambio
+        CsrGraph<String> csr = CsrSnapshot.load(Path.of("input.txt"), Path.of("input.csr"));
+
+        // Modo por lotes: java DegreesOfSeparation --batch [archivo]
+        // Lee un par de nombres por linea del archivo o de la entrada estandar
+        if (args[0].equals("--batch")) {
+            BufferedReader reader;
+            if (args.length > 1) {
+                reader = new BufferedReader(new FileReader(args[1]));
+            } else {
+                reader = new BufferedReader(new InputStreamReader(System.in));
+            }
 
-            // Creamos las aristas
-            graph.connect(name[0], name[1]);
-            graph.connect(name[1], name[0]);
+            answerQueries(csr, reader, System.out);
+            reader.close();
+            return;
         }
 
-        // graph.printAdjacencyList();
+        // Lee los nombres de las personas de la línea de comandos
+        String name1 = args[0];
+        String name2 = args[1];
+
+        BfsEngine engine = new BfsEngine(csr);
 
         // Calcula el grado de separacion entre las dos personas
-        int separation = findSeparation(graph, name1, name2);
+        int separation = findSeparation(engine, csr, name1, name2);
 
         // Imprime el grado de separacion en la salida estándar
         System.out.println(separation);
 
+        // Con un tercer argumento k imprime hasta k cadenas de personas, una por linea
+        if (args.length > 2) {
+            for (List<String> path : findShortestPaths(engine, csr, name1, name2, Integer.parseInt(args[2]))) {
+                System.out.println(String.join(" ", path));
+            }
+        }
+
+    }
+
+    /**
+     * Funcion encargada de crear el grafo no dirigido de relaciones a partir de
+     * las lineas del archivo, cargando las aristas en bloque.
+     * 
+     * @param lines Lineas con dos nombres separados por un espacio.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    public static AdjacencyListGraph<String> buildGraph(List<String> lines) {
+
+        // Recorremos los datos para juntar las aristas en ambos sentidos
+        List<String> sources = new ArrayList<>(lines.size() * 2);
+        List<String> targets = new ArrayList<>(lines.size() * 2);
+
+        for (String line : lines) {
+
+            String[] name = line.split(" ");
+
+            sources.add(name[0]);
+            targets.add(name[1]);
+            sources.add(name[1]);
+            targets.add(name[0]);
+        }
+
+        // Cremos un nuevo grafo y lo cargamos en bloque
+        AdjacencyListGraph<String> graph = new AdjacencyListGraph<>(lines.size());
+        graph.addAll(sources);
+        graph.connectAll(sources, targets);
+
+        return graph;
     }
 
     /**
@@ -67,71 +128,257 @@ public class DegreesOfSeparation {
     }
 
     /**
-     * Funcioon encaragas de recorrer el grafo mediante BFS desde el nombre1 hasta
-     * nombre2
-     * Calculando su grado de separacion
+     * Funcion encargada de responder un flujo de consultas, una por linea con
+     * dos nombres. Lee bloques con todas las lineas disponibles sin esperar,
+     * asi responde rapido en modo interactivo y agrupa mucho al leer un
+     * archivo. Las respuestas se imprimen en el orden de entrada y al terminar
+     * se imprimen en la salida de error las estadisticas de latencia.
      * 
-     * @param graph grafo donde estan los datos.
-     * @param name1 nombre de la persona 1.
-     * @param name2 nombre de la persona 2.
-     * @return numero del grado de separacion entre las dos personas.
+     * @param csr    copia compacta del grafo.
+     * @param reader fuente de las consultas.
+     * @param out    salida para las respuestas.
      */
-    private static int findSeparation(AdjacencyListGraph<String> graph, String name1, String name2) {
+    public static void answerQueries(CsrGraph<String> csr, BufferedReader reader, PrintStream out)
+            throws IOException, InterruptedException {
 
-        // Si alguno de los dos nombre no pertenece al grafo retornamos -1
-        if (!graph.contains(name1) || !graph.contains(name2)) {
-            return -1;
-        }
+        // Las cotas del indice se comparten entre todos los hilos
+        LandmarkIndex landmarks = new LandmarkIndex(csr, LANDMARKS);
 
-        // Si los nombres son el mismo retornamos 0
-        if (name1.equals(name2)) {
-            return 0;
+        // Un motor por hilo, reutilizado en todos los bloques
+        int threads = Runtime.getRuntime().availableProcessors();
+        BfsEngine[] engines = new BfsEngine[threads];
+        for (int t = 0; t < threads; t++) {
+            engines[t] = new BfsEngine(csr);
         }
 
-        // Creamos una cola para almacenar las personas que no se han visitado
-        List<String> queue = new ArrayList<>();
-        queue.add(name1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<String> block = new ArrayList<>();
+        long[] latencies = new long[1024];
+        int answered = 0;
+        long start = System.nanoTime();
+        boolean done = false;
+
+        try {
+            while (!done) {
+
+                // Espera la primera linea y luego toma las que ya esten disponibles
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                block.add(line);
+
+                while (block.size() < BATCH_SIZE && reader.ready()) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        done = true;
+                        break;
+                    }
+                    block.add(line);
+                }
+
+                if (answered + block.size() > latencies.length) {
+                    latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, answered + block.size()));
+                }
+
+                int[] results = answerBlock(csr, landmarks, block, engines, pool, latencies, answered);
+
+                StringBuilder output = new StringBuilder();
+                for (int result : results) {
+                    output.append(result).append('\n');
+                }
+                out.print(output);
+                out.flush();
+
+                answered += block.size();
+                block.clear();
+            }
+        } finally {
+            pool.shutdown();
+        }
 
-        // Creamos un set para almacenar las personas que ya se han visitado
-        Set<String> visited = new HashSet<>();
-        visited.add(name1);
+        printLatencyStats(latencies, answered, System.nanoTime() - start);
+    }
 
-        // Inicializamos el grado de separacion
-        int separation = 1;
+    /**
+     * Funcion encargada de responder un bloque de consultas en paralelo. Las
+     * consultas con el mismo origen se agrupan y se responden con un solo BFS
+     * completo; un origen con una sola consulta usa el BFS bidireccional
+     * acotado por el indice de referencias.
+     * 
+     * @param csr       copia compacta del grafo.
+     * @param landmarks indice de distancias desde vertices de referencia.
+     * @param block     lineas con dos nombres.
+     * @param engines   un motor de BFS por hilo.
+     * @param pool      hilos de trabajo, uno por motor.
+     * @param latencies arreglo donde se guarda la latencia de cada consulta.
+     * @param offset    posicion en latencies de la primera consulta del bloque.
+     * @return las respuestas en el orden del bloque.
+     */
+    private static int[] answerBlock(CsrGraph<String> csr, LandmarkIndex landmarks, List<String> block,
+            BfsEngine[] engines, ExecutorService pool, long[] latencies, int offset) throws InterruptedException {
 
-        while (!queue.isEmpty()) {
+        int[] results = new int[block.size()];
+        int[] sources = new int[block.size()];
+        int[] targets = new int[block.size()];
 
-            int size = queue.size();
+        // Agrupa las consultas validas por origen
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
 
-            for (int i = 0; i < size; i++) {
-                String vertex = queue.remove(0);
+        for (int q = 0; q < block.size(); q++) {
+            String[] name = block.get(q).split(" ");
 
-                // Obtenemos los vertices adjacentes
-                List<String> verticesConnectedTo = graph.getVerticesConnectedTo(vertex);
+            sources[q] = csr.getId(name[0]);
+            targets[q] = name.length > 1 ? csr.getId(name[1]) : -1;
 
-                // Visita los vecinos del vertice actual
-                for (String neighbor : verticesConnectedTo) {
+            if (sources[q] == -1 || targets[q] == -1) {
+                results[q] = -1;
+                continue;
+            }
 
-                    if (!visited.contains(neighbor)) {
+            groups.computeIfAbsent(sources[q], k -> new ArrayList<>()).add(q);
+        }
 
-                        // Si el vecino es la persona objetivo, se ha encontrado el grado de separacion
-                        if (neighbor.equals(name2)) {
-                            return separation;
+        List<List<Integer>> work = new ArrayList<>(groups.values());
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (BfsEngine engine : engines) {
+            tasks.add(() -> {
+                int index;
+
+                while ((index = next.getAndIncrement()) < work.size()) {
+                    List<Integer> group = work.get(index);
+                    long groupStart = System.nanoTime();
+
+                    if (group.size() == 1) {
+                        int q = group.get(0);
+                        results[q] = landmarks.distance(engine, sources[q], targets[q]);
+                    } else {
+                        engine.run(sources[group.get(0)]);
+                        for (int q : group) {
+                            results[q] = engine.getDistance(targets[q]);
                         }
+                    }
 
-                        // Agrega el vecino a la cola y al array de visitados
-                        queue.add(neighbor);
-                        visited.add(neighbor);
+                    long elapsed = System.nanoTime() - groupStart;
+                    for (int q : group) {
+                        latencies[offset + q] = elapsed;
                     }
                 }
-            }
 
-            // Se incrementa el grado de separacion
-            separation++;
+                return null;
+            });
         }
 
-        // Si no se encontro el grado de separacion, se devuelve -1
-        return -1;
+        pool.invokeAll(tasks);
+        return results;
+    }
+
+    /**
+     * Funcion encargada de imprimir en la salida de error la cantidad de
+     * consultas, el rendimiento y los percentiles de latencia.
+     * 
+     * @param latencies latencia de cada consulta en nanosegundos.
+     * @param count     cantidad de consultas respondidas.
+     * @param elapsed   tiempo total en nanosegundos.
+     */
+    private static void printLatencyStats(long[] latencies, int count, long elapsed) {
+
+        if (count == 0) {
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        System.err.printf("consultas=%d tiempo=%.3fs consultas/s=%.0f p50=%dus p99=%dus max=%dus%n", count,
+                elapsed / 1e9, count * 1e9 / elapsed, sorted[count / 2] / 1000,
+                sorted[(int) Math.min(count - 1, count * 99L / 100)] / 1000, sorted[count - 1] / 1000);
+    }
+
+    /**
+     * Funcion encargada de calcular el grado de separacion entre nombre1 y
+     * nombre2 con el motor de BFS bidireccional sobre los identificadores
+     * enteros del CSR.
+     * 
+     * @param engine motor de BFS creado sobre csr.
+     * @param csr    copia compacta del grafo.
+     * @param name1  nombre de la persona 1.
+     * @param name2  nombre de la persona 2.
+     * @return numero del grado de separacion entre las dos personas.
+     */
+    public static int findSeparation(BfsEngine engine, CsrGraph<String> csr, String name1, String name2) {
+
+        int source = csr.getId(name1);
+        int target = csr.getId(name2);
+
+        // Si alguno de los dos nombre no pertenece al grafo retornamos -1
+        if (source == -1 || target == -1) {
+            return -1;
+        }
+
+        return engine.distance(source, target);
+    }
+
+    /**
+     * Funcion encargada de calcular una cadena de personas de largo minimo
+     * entre nombre1 y nombre2.
+     * 
+     * @param engine motor de BFS creado sobre csr.
+     * @param csr    copia compacta del grafo.
+     * @param name1  nombre de la persona 1.
+     * @param name2  nombre de la persona 2.
+     * @return los nombres de la cadena, de nombre1 a nombre2, o null si no
+     *         estan conectados.
+     */
+    public static List<String> findPath(BfsEngine engine, CsrGraph<String> csr, String name1, String name2) {
+
+        int source = csr.getId(name1);
+        int target = csr.getId(name2);
+
+        if (source == -1 || target == -1) {
+            return null;
+        }
+
+        int[] path = engine.path(source, target);
+        return path == null ? null : toNames(csr, path);
+    }
+
+    /**
+     * Funcion encargada de calcular hasta k cadenas de personas distintas de
+     * largo minimo entre nombre1 y nombre2.
+     * 
+     * @param engine motor de BFS creado sobre csr.
+     * @param csr    copia compacta del grafo.
+     * @param name1  nombre de la persona 1.
+     * @param name2  nombre de la persona 2.
+     * @param k      cantidad maxima de cadenas.
+     * @return las cadenas, vacia si no estan conectados.
+     */
+    public static List<List<String>> findShortestPaths(BfsEngine engine, CsrGraph<String> csr, String name1,
+            String name2, int k) {
+
+        List<List<String>> paths = new ArrayList<>();
+        int source = csr.getId(name1);
+        int target = csr.getId(name2);
+
+        if (source == -1 || target == -1) {
+            return paths;
+        }
+
+        for (int[] path : engine.shortestPaths(source, target, k)) {
+            paths.add(toNames(csr, path));
+        }
+        return paths;
+    }
+
+    private static List<String> toNames(CsrGraph<String> csr, int[] path) {
+        List<String> names = new ArrayList<>(path.length);
+        for (int id : path) {
+            names.add(csr.getVertex(id));
+        }
+        return names;
     }
 
 }
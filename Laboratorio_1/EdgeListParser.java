@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lector del archivo de relaciones directo desde memoria mapeada.
+ *
+ * Recorre los bytes del archivo una sola vez sin crear lineas ni arreglos
+ * intermedios. Cada nombre se busca en un diccionario que compara los bytes
+ * del archivo con los ya vistos, asi se crea un solo String por persona y
+ * cada relacion se guarda como un par de identificadores enteros. Al terminar
+ * se construye directamente el CSR simetrico.
+ */
+public class EdgeListParser {
+
+    // Tamano maximo de cada porcion del archivo que se mapea a la vez.
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    // Diccionario de nombres: tabla de dispersion abierta que guarda en cada
+    // casilla el identificador y el hash juntos, para que un sondeo fallido
+    // no toque otra zona de memoria, y los bytes de cada nombre en un solo
+    // arreglo.
+    private int[] table = new int[2 << 10];
+    private int[] nameStart = new int[256];
+    private byte[] nameBytes = new byte[4096];
+    private int nameCount;
+
+    // Relaciones leidas, la i-esima une sources[i] con targets[i].
+    private int[] sources = new int[1024];
+    private int[] targets = new int[1024];
+    private int edgeCount;
+
+    // Inicio y fin de los nombres de la linea en curso.
+    private int[] bounds = new int[4];
+
+    private EdgeListParser() {
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * Lee el archivo de relaciones, con dos nombres separados por espacios en
+     * cada linea, y construye el grafo no dirigido en formato CSR. Las lineas
+     * con menos de dos nombres se ignoran, al igual que las palabras despues
+     * del segundo nombre. Como en AdjacencyListGraph, se descartan las
+     * relaciones repetidas y las de una persona consigo misma.
+     *
+     * @param path Ruta del archivo.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    public static CsrGraph<String> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return load(channel, channel.size(), SEGMENT_SIZE);
+        }
+    }
+
+    /**
+     * Como load, pero lee solo los primeros length bytes del archivo.
+     *
+     * @param path   Ruta del archivo.
+     * @param length Cantidad de bytes a leer.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    public static CsrGraph<String> load(Path path, long length) throws IOException {
+        return load(path, length, SEGMENT_SIZE);
+    }
+
+    /**
+     * Como load, pero mapeando porciones de a lo sumo segmentSize bytes. Con
+     * porciones chicas se puede probar el paso de una linea cortada de una
+     * porcion a la siguiente sin un archivo de mas de SEGMENT_SIZE bytes.
+     *
+     * @param path        Ruta del archivo.
+     * @param length      Cantidad de bytes a leer.
+     * @param segmentSize Tamano maximo de cada porcion, mayor que la linea mas
+     *                    larga.
+     * @return El grafo con cada relacion en ambos sentidos.
+     */
+    static CsrGraph<String> load(Path path, long length, long segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return load(channel, Math.min(length, channel.size()), segmentSize);
+        }
+    }
+
+    private static CsrGraph<String> load(FileChannel channel, long size, long segmentSize) throws IOException {
+        EdgeListParser parser = new EdgeListParser();
+        long position = 0;
+
+        while (position < size) {
+            long length = Math.min(segmentSize, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            boolean last = position + length == size;
+
+            position += parser.parse(buffer, (int) length, last);
+        }
+
+        return parser.toCsr();
+    }
+
+    /**
+     * Separa los dos primeros nombres de una linea con las mismas reglas que
+     * load, para quien lee las lineas por su cuenta.
+     *
+     * @param line Los bytes de la linea en UTF-8, sin el salto de linea.
+     * @return Los dos nombres, o null si la linea tiene menos de dos.
+     */
+    public static String[] splitLine(byte[] line) {
+        int[] bounds = new int[4];
+
+        if (findNames(ByteBuffer.wrap(line), 0, line.length, bounds) < 2) {
+            return null;
+        }
+
+        return new String[] { new String(line, bounds[0], bounds[1] - bounds[0], StandardCharsets.UTF_8),
+                new String(line, bounds[2], bounds[3] - bounds[2], StandardCharsets.UTF_8) };
+    }
+
+    /**
+     * Procesa las lineas completas de una porcion del archivo.
+     *
+     * @param buffer La porcion mapeada.
+     * @param length Cantidad de bytes de la porcion.
+     * @param last   True si la porcion llega al final del archivo.
+     * @return Cantidad de bytes consumidos; una linea cortada al final de la
+     *         porcion queda para la siguiente.
+     */
+    private int parse(MappedByteBuffer buffer, int length, boolean last) {
+        int lineStart = 0;
+
+        while (lineStart < length) {
+
+            int lineEnd = lineStart;
+            while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+
+            if (lineEnd == length && !last) {
+                // La linea sigue en la siguiente porcion
+                if (lineStart == 0) {
+                    throw new IllegalStateException("Linea demasiado larga");
+                }
+                break;
+            }
+
+            parseLine(buffer, lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+        }
+
+        return Math.min(lineStart, length);
+    }
+
+    /**
+     * Interna los dos primeros nombres de la linea [start, end) y guarda la
+     * relacion.
+     */
+    private void parseLine(MappedByteBuffer buffer, int start, int end) {
+
+        if (findNames(buffer, start, end, bounds) < 2) {
+            return;
+        }
+
+        if (edgeCount == sources.length) {
+            sources = Arrays.copyOf(sources, edgeCount * 2);
+            targets = Arrays.copyOf(targets, edgeCount * 2);
+        }
+
+        sources[edgeCount] = intern(buffer, bounds[0], bounds[1]);
+        targets[edgeCount] = intern(buffer, bounds[2], bounds[3]);
+        edgeCount++;
+    }
+
+    /**
+     * Busca los dos primeros nombres de la linea [start, end), separados por
+     * espacios o tabuladores e ignorando un '\r' final.
+     *
+     * @param bounds Arreglo donde se guardan el inicio y el fin de cada
+     *               nombre.
+     * @return La cantidad de nombres encontrados, a lo sumo dos.
+     */
+    private static int findNames(ByteBuffer buffer, int start, int end, int[] bounds) {
+
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+
+        int found = 0;
+        int position = start;
+
+        while (found < 2 && position < end) {
+            while (position < end && isSeparator(buffer.get(position))) {
+                position++;
+            }
+
+            int nameEnd = position;
+            while (nameEnd < end && !isSeparator(buffer.get(nameEnd))) {
+                nameEnd++;
+            }
+
+            if (nameEnd > position) {
+                bounds[2 * found] = position;
+                bounds[2 * found + 1] = nameEnd;
+                found++;
+            }
+            position = nameEnd;
+        }
+
+        return found;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * Devuelve el identificador del nombre en [start, end), asignando uno
+     * nuevo si no se habia visto.
+     */
+    private int intern(MappedByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+
+        int mask = (table.length >>> 1) - 1;
+        int slot = slot(hash, mask);
+
+        while (table[2 * slot] != -1) {
+            int id = table[2 * slot];
+            if (table[2 * slot + 1] == hash && sameName(id, buffer, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Nombre nuevo: copia sus bytes al final del arreglo
+        int length = end - start;
+        int offset = nameStart[nameCount];
+
+        if (offset + length > nameBytes.length) {
+            nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, offset + length));
+        }
+        for (int i = 0; i < length; i++) {
+            nameBytes[offset + i] = buffer.get(start + i);
+        }
+
+        if (nameCount + 1 == nameStart.length) {
+            nameStart = Arrays.copyOf(nameStart, nameStart.length * 2);
+        }
+
+        int id = nameCount++;
+        nameStart[nameCount] = offset + length;
+        table[2 * slot] = id;
+        table[2 * slot + 1] = hash;
+
+        // Mantiene la tabla a lo sumo medio llena
+        if (nameCount * 4 > table.length) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    /**
+     * Posicion inicial de un hash en la tabla. Los nombres parecidos tienen
+     * hashes consecutivos, asi que se mezclan los bits para no formar
+     * cumulos en el sondeo lineal.
+     */
+    private static int slot(int hash, int mask) {
+        int mixed = hash * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & mask;
+    }
+
+    private boolean sameName(int id, MappedByteBuffer buffer, int start, int end) {
+        int offset = nameStart[id];
+
+        if (nameStart[id + 1] - offset != end - start) {
+            return false;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (nameBytes[offset++] != buffer.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Duplica la tabla de dispersion y reubica los identificadores.
+     */
+    private void rehash() {
+        int[] old = table;
+        table = new int[old.length * 2];
+        Arrays.fill(table, -1);
+        int mask = (table.length >>> 1) - 1;
+
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] == -1) {
+                continue;
+            }
+
+            int slot = slot(old[i + 1], mask);
+            while (table[2 * slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            table[2 * slot] = old[i];
+            table[2 * slot + 1] = old[i + 1];
+        }
+    }
+
+    /**
+     * Construye el CSR simetrico con las relaciones leidas, sin repetidas ni
+     * lazos.
+     */
+    private CsrGraph<String> toCsr() {
+        int n = nameCount;
+        int[] offsets = new int[n + 1];
+
+        for (int i = 0; i < edgeCount; i++) {
+            if (sources[i] != targets[i]) {
+                offsets[sources[i] + 1]++;
+                offsets[targets[i] + 1]++;
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] position = Arrays.copyOf(offsets, n);
+        int[] adjacency = new int[offsets[n]];
+
+        for (int i = 0; i < edgeCount; i++) {
+            if (sources[i] != targets[i]) {
+                adjacency[position[sources[i]]++] = targets[i];
+                adjacency[position[targets[i]]++] = sources[i];
+            }
+        }
+
+        // Ordena cada fila y compacta quitando las repetidas
+        int write = 0;
+        int rowStart = 0;
+
+        for (int v = 0; v < n; v++) {
+            int rowEnd = offsets[v + 1];
+            Arrays.sort(adjacency, rowStart, rowEnd);
+
+            offsets[v] = write;
+            for (int e = rowStart; e < rowEnd; e++) {
+                if (e == rowStart || adjacency[e] != adjacency[e - 1]) {
+                    adjacency[write++] = adjacency[e];
+                }
+            }
+            rowStart = rowEnd;
+        }
+        offsets[n] = write;
+
+        String[] names = new String[n];
+        for (int id = 0; id < n; id++) {
+            names[id] = new String(nameBytes, nameStart[id], nameStart[id + 1] - nameStart[id], StandardCharsets.UTF_8);
+        }
+
+        return new CsrGraph<>(Arrays.asList(names), offsets, Arrays.copyOf(adjacency, write), false);
+    }
+}
@@ -0,0 +1,468 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Correr de la siguiente forma: javac *.java && java IncrementalSeparation
+//Lee de la entrada estandar un par de nombres por linea e imprime su grado de
+//separacion, mientras aplica las lineas que se agregan al final de input.txt.
+
+/**
+ * Grados de separacion sobre un archivo de relaciones que crece.
+ *
+ * Sigue el final del archivo y aplica cada linea nueva con connect sobre un
+ * AdjacencyListGraph. Para los origenes mas consultados guarda el arbol BFS
+ * completo (la distancia a cada persona) y lo actualiza con cada relacion
+ * nueva: si la relacion acorta la distancia a uno de sus extremos, solo se
+ * vuelven a expandir los vertices cuya distancia bajo. Como el archivo solo
+ * crece, las distancias nunca suben.
+ *
+ * Si el archivo se trunca o se reescribe se vuelve a cargar completo. Se nota
+ * porque es mas corto que lo ya leido, porque cambio su fecha sin crecer, o
+ * porque cambiaron los ultimos bytes ya leidos. Una reescritura mas larga que
+ * deja iguales esos bytes se toma como si solo hubiera crecido.
+ *
+ * Una ultima linea sin salto de linea se considera incompleta: no se aplica
+ * hasta que llegue su '\n'. Las lineas se separan con las mismas reglas que
+ * EdgeListParser.
+ */
+public class IncrementalSeparation {
+
+    // Cantidad maxima de arboles guardados y consultas para guardar uno.
+    private static final int MAX_TREES = 16;
+    private static final int TREE_THRESHOLD = 2;
+
+    // Cada cuantas consultas se reducen a la mitad las cuentas por origen,
+    // para que los origenes que ya no se consultan se olviden.
+    private static final int DECAY_PERIOD = 4096;
+
+    // Referencias y respuestas guardadas del indice para las consultas que
+    // no tienen arbol.
+    private static final int LANDMARKS = 16;
+    private static final int CACHE_SIZE = 4096;
+
+    private static final long POLL_MILLIS = 5;
+
+    // Cantidad de bytes antes de position que se comparan en cada poll.
+    private static final int TAIL_SIZE = 64;
+
+    private Path file;
+    private Path snapshot;
+
+    private AdjacencyListGraph<String> graph;
+    private SeparationIndex<String> index;
+
+    // Identificador denso de cada persona, para indexar los arboles.
+    private Map<String, Integer> ids;
+    private List<String> names;
+
+    // Arboles por origen y cantidad de consultas de cada origen.
+    private Map<Integer, int[]> trees;
+    private Map<Integer, Integer> queryCounts;
+    private int queriesSinceDecay;
+
+    // Posicion del archivo hasta donde se aplicaron las lineas y el resto de
+    // una linea que todavia no termina.
+    private long position;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    // Fecha de modificacion del archivo y sus ultimos bytes hasta position,
+    // para notar si se reescribio en lugar de crecer.
+    private long modified;
+    private byte[] tail;
+
+    /**
+     * Carga el archivo, usando la copia binaria si corresponde.
+     *
+     * @param file     Ruta del archivo de relaciones.
+     * @param snapshot Ruta de la copia binaria.
+     */
+    public IncrementalSeparation(Path file, Path snapshot) throws IOException {
+        this.file = file;
+        this.snapshot = snapshot;
+        reload();
+    }
+
+    /**
+     * Vuelve a cargar el grafo completo y descarta los arboles.
+     */
+    private void reload() throws IOException {
+        // Se carga hasta el ultimo salto de linea antes de leer: si el archivo
+        // crece mientras tanto, esas lineas se aplican dos veces y connect las
+        // ignora. El resto de la ultima linea lo lee poll.
+        modified = Files.getLastModifiedTime(file).toMillis();
+        long complete = completeLength();
+        CsrGraph<String> csr = CsrSnapshot.load(file, snapshot, complete);
+
+        int n = csr.vertexCount();
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+
+        names = new ArrayList<>(csr.getAllVertices());
+        ids = new HashMap<>(n * 2);
+        for (int v = 0; v < n; v++) {
+            ids.put(names.get(v), v);
+        }
+
+        List<String> sources = new ArrayList<>(targets.length);
+        List<String> destinations = new ArrayList<>(targets.length);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                sources.add(names.get(v));
+                destinations.add(names.get(targets[e]));
+            }
+        }
+
+        graph = new AdjacencyListGraph<>(n);
+        graph.addAll(names);
+        graph.connectAll(sources, destinations);
+        index = new SeparationIndex<>(graph, LANDMARKS, CACHE_SIZE);
+
+        trees = new HashMap<>();
+        queryCounts = new LinkedHashMap<>();
+        queriesSinceDecay = 0;
+        position = complete;
+        pending.reset();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            tail = readTail(channel);
+        }
+    }
+
+    /**
+     * Lee los ultimos TAIL_SIZE bytes antes de position, o menos si position
+     * es menor.
+     */
+    private byte[] readTail(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TAIL_SIZE, position));
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position - buffer.capacity() + buffer.position()) <= 0) {
+                break;
+            }
+        }
+
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Devuelve la cantidad de bytes del archivo hasta su ultimo salto de
+     * linea, inclusive.
+     */
+    private long completeLength() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            long end = channel.size();
+
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear();
+                buffer.limit((int) (end - start));
+                channel.read(buffer, start);
+
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+
+            return 0;
+        }
+    }
+
+    /**
+     * Aplica las lineas completas que se agregaron al archivo desde la ultima
+     * llamada.
+     *
+     * @return La cantidad de relaciones nuevas.
+     */
+    public synchronized int poll() throws IOException {
+        int applied = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // La fecha se lee antes que el tamano: si el archivo crece entre
+            // ambas, la siguiente llamada lo lee en lugar de recargar.
+            long modifiedNow = Files.getLastModifiedTime(file).toMillis();
+            long size = channel.size();
+
+            if (size == position && modifiedNow == modified) {
+                return 0;
+            }
+
+            if (size <= position || !Arrays.equals(readTail(channel), tail)) {
+                reload();
+                return 0;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                position += read;
+
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b != '\n') {
+                        pending.write(b);
+                        continue;
+                    }
+
+                    if (applyLine(pending.toByteArray())) {
+                        applied++;
+                    }
+                    pending.reset();
+                }
+            }
+
+            modified = modifiedNow;
+            tail = readTail(channel);
+        }
+
+        return applied;
+    }
+
+    /**
+     * Aplica una linea con dos nombres como una relacion en ambos sentidos.
+     *
+     * @return True si la relacion es nueva.
+     */
+    private boolean applyLine(byte[] line) {
+        String[] name = EdgeListParser.splitLine(line);
+
+        if (name == null || name[0].equals(name[1])) {
+            return false;
+        }
+
+        int u = idOf(name[0]);
+        int v = idOf(name[1]);
+
+        if (!index.connect(name[0], name[1])) {
+            return false;
+        }
+
+        for (Map.Entry<Integer, int[]> tree : trees.entrySet()) {
+            int[] distance = grow(tree.getValue());
+            tree.setValue(distance);
+
+            decrease(distance, u, v);
+            decrease(distance, v, u);
+        }
+
+        return true;
+    }
+
+    /**
+     * Devuelve el identificador de una persona, agregandola al grafo si es
+     * nueva.
+     */
+    private int idOf(String name) {
+        Integer id = ids.get(name);
+
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+            index.add(name);
+        }
+
+        return id;
+    }
+
+    /**
+     * Agranda un arbol para cubrir a las personas nuevas, que empiezan sin
+     * ser alcanzadas.
+     */
+    private int[] grow(int[] tree) {
+        if (tree.length >= names.size()) {
+            return tree;
+        }
+
+        int old = tree.length;
+        tree = Arrays.copyOf(tree, Math.max(names.size(), old * 2));
+        Arrays.fill(tree, old, tree.length, -1);
+        return tree;
+    }
+
+    /**
+     * Actualiza un arbol despues de agregar la arista de u a v: si pasar por u
+     * acorta la distancia a v, propaga la mejora solo por los vertices cuya
+     * distancia baja.
+     */
+    private void decrease(int[] distance, int u, int v) {
+        if (distance[u] == -1 || (distance[v] != -1 && distance[v] <= distance[u] + 1)) {
+            return;
+        }
+
+        distance[v] = distance[u] + 1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(v);
+
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            int level = distance[vertex] + 1;
+            graph.forEachOutNeighbor(names.get(vertex), name -> {
+                int neighbor = ids.get(name);
+
+                if (distance[neighbor] == -1 || distance[neighbor] > level) {
+                    distance[neighbor] = level;
+                    queue.add(neighbor);
+                }
+            });
+        }
+    }
+
+    /**
+     * Devuelve el grado de separacion entre dos personas. Si uno de los dos es
+     * un origen frecuente se responde desde su arbol; si no, con el
+     * SeparationIndex, que guarda las respuestas recientes y acota la busqueda
+     * con sus referencias.
+     *
+     * @param name1 nombre de la persona 1.
+     * @param name2 nombre de la persona 2.
+     * @return numero del grado de separacion, o -1 si no estan conectados.
+     */
+    public synchronized int separation(String name1, String name2) {
+        Integer source = ids.get(name1);
+        Integer target = ids.get(name2);
+
+        if (source == null || target == null) {
+            return -1;
+        }
+
+        int[] tree = tree(source);
+        if (tree == null) {
+            // El grafo es simetrico, sirve tambien el arbol del destino
+            tree = trees.get(target);
+            if (tree != null) {
+                int swap = source;
+                source = target;
+                target = swap;
+            }
+        }
+
+        if (tree != null) {
+            return tree[target];
+        }
+
+        return index.separation(name1, name2);
+    }
+
+    /**
+     * Cuenta la consulta del origen y devuelve su arbol, construyendolo si el
+     * origen ya es frecuente. Cuando no hay lugar se descarta el arbol del
+     * origen menos consultado.
+     */
+    private int[] tree(int source) {
+        if (++queriesSinceDecay == DECAY_PERIOD) {
+            queriesSinceDecay = 0;
+            queryCounts.replaceAll((root, count) -> count / 2);
+            queryCounts.values().removeIf(count -> count == 0);
+        }
+
+        int count = queryCounts.merge(source, 1, Integer::sum);
+        int[] tree = trees.get(source);
+
+        if (tree != null) {
+            return tree;
+        }
+
+        if (count < TREE_THRESHOLD) {
+            return null;
+        }
+
+        if (trees.size() == MAX_TREES) {
+            int coldest = -1;
+            for (int root : trees.keySet()) {
+                if (coldest == -1 || queryCounts.getOrDefault(root, 0) < queryCounts.getOrDefault(coldest, 0)) {
+                    coldest = root;
+                }
+            }
+            if (queryCounts.getOrDefault(coldest, 0) >= count) {
+                return null;
+            }
+            trees.remove(coldest);
+        }
+
+        tree = new int[names.size()];
+        Arrays.fill(tree, -1);
+        bfs(source, tree);
+        trees.put(source, tree);
+        return tree;
+    }
+
+    /**
+     * BFS completo desde source sobre el grafo.
+     *
+     * @param distance Arreglo lleno de -1 donde se guardan las distancias.
+     */
+    private void bfs(int source, int[] distance) {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        distance[source] = 0;
+        queue.add(source);
+
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+
+            graph.forEachOutNeighbor(names.get(vertex), name -> {
+                int neighbor = ids.get(name);
+
+                if (distance[neighbor] == -1) {
+                    distance[neighbor] = distance[vertex] + 1;
+                    queue.add(neighbor);
+                }
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        IncrementalSeparation separation = new IncrementalSeparation(Path.of("input.txt"), Path.of("input.csr"));
+
+        // Hilo que sigue el final del archivo
+        Thread follower = new Thread(() -> {
+            try {
+                while (true) {
+                    separation.poll();
+                    Thread.sleep(POLL_MILLIS);
+                }
+            } catch (IOException e) {
+                System.err.println("No se pudo leer input.txt: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        follower.setDaemon(true);
+        follower.start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] name = line.trim().split("\\s+");
+            if (name.length < 2) {
+                continue;
+            }
+
+            // Aplica lo que haya llegado justo antes de la consulta
+            separation.poll();
+            System.out.println(separation.separation(name[0], name[1]));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * Indice de distancias desde vertices de referencia (landmarks).
+ *
+ * Guarda la distancia BFS desde cada referencia a todos los vertices en un
+ * byte por vertice. Por la desigualdad triangular, para cualquier par u, v y
+ * referencia L se cumple |d(L, u) - d(L, v)| <= d(u, v) <= d(L, u) + d(L, v),
+ * lo que da cotas inmediatas de la separacion y permite podar la busqueda
+ * exacta. Supone que el grafo es simetrico (cada relacion en ambos sentidos),
+ * como lo construye DegreesOfSeparation. Una vez creado no cambia, asi que se
+ * puede compartir entre hilos.
+ */
+public class LandmarkIndex implements BfsEngine.LowerBound {
+
+    // Distancias de 254 o mas se guardan como FAR y no se usan en las cotas.
+    private static final int FAR = 254;
+    private static final int UNREACHABLE = 255;
+
+    private int[] landmarks;
+    private byte[][] distances;
+
+    /**
+     * Construye el indice eligiendo como referencias los vertices de mayor
+     * grado.
+     *
+     * @param graph El grafo en formato CSR.
+     * @param count La cantidad de referencias.
+     */
+    public LandmarkIndex(CsrGraph<?> graph, int count) {
+        int n = graph.vertexCount();
+        count = Math.min(count, n);
+
+        // Ordena los vertices por grado, empaquetando (grado << 32) | id.
+        long[] byDegree = new long[n];
+        for (int v = 0; v < n; v++) {
+            byDegree[v] = ((long) graph.outDegree(v) << 32) | v;
+        }
+        Arrays.sort(byDegree);
+
+        landmarks = new int[count];
+        distances = new byte[count][];
+        BfsEngine engine = new BfsEngine(graph);
+
+        for (int i = 0; i < count; i++) {
+            landmarks[i] = (int) byDegree[n - 1 - i];
+            engine.run(landmarks[i]);
+
+            distances[i] = new byte[n];
+            for (int v = 0; v < n; v++) {
+                int distance = engine.getDistance(v);
+                distances[i][v] = (byte) (distance == -1 ? UNREACHABLE : Math.min(distance, FAR));
+            }
+        }
+    }
+
+    /**
+     * Devuelve una cota inferior de la distancia entre u y v.
+     *
+     * @param u Identificador del primer vertice.
+     * @param v Identificador del segundo vertice.
+     * @return La cota, o Integer.MAX_VALUE si v no es alcanzable desde u.
+     */
+    public int lowerBound(int u, int v) {
+        int best = 0;
+
+        for (byte[] row : distances) {
+            int du = row[u] & 0xFF;
+            int dv = row[v] & 0xFF;
+
+            // Una referencia alcanza a uno y no al otro: estan en componentes distintas
+            if ((du == UNREACHABLE) != (dv == UNREACHABLE)) {
+                return Integer.MAX_VALUE;
+            }
+
+            if (du < FAR && dv < FAR) {
+                best = Math.max(best, Math.abs(du - dv));
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Devuelve una cota superior de la distancia entre u y v, que es la
+     * longitud de un camino que pasa por alguna referencia.
+     *
+     * @param u Identificador del primer vertice.
+     * @param v Identificador del segundo vertice.
+     * @return La cota, o Integer.MAX_VALUE si ninguna referencia alcanza a
+     *         ambos.
+     */
+    public int upperBound(int u, int v) {
+        int best = Integer.MAX_VALUE;
+
+        for (byte[] row : distances) {
+            int du = row[u] & 0xFF;
+            int dv = row[v] & 0xFF;
+
+            if (du < FAR && dv < FAR) {
+                best = Math.min(best, du + dv);
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Calcula la distancia exacta entre source y target usando las cotas: si
+     * coinciden responde sin buscar y, si no, la busqueda bidireccional se
+     * corta en la cota superior y poda con la inferior.
+     *
+     * @param engine Motor de BFS sobre el mismo CSR.
+     * @param source Identificador del origen.
+     * @param target Identificador del destino.
+     * @return La distancia, o -1 si target no es alcanzable.
+     */
+    public int distance(BfsEngine engine, int source, int target) {
+
+        if (source == target) {
+            return 0;
+        }
+
+        int lower = lowerBound(source, target);
+        int upper = upperBound(source, target);
+
+        if (lower == Integer.MAX_VALUE) {
+            return -1;
+        }
+
+        if (lower == upper) {
+            return upper;
+        }
+
+        return engine.distance(source, target, upper, this);
+    }
+
+    /**
+     * Devuelve la cantidad de referencias.
+     *
+     * @return La cantidad de referencias.
+     */
+    public int size() {
+        return landmarks.length;
+    }
+}
@@ -0,0 +1,304 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BFS paralelo por niveles sobre un CsrGraph que cambia de direccion segun
+ * el tamano de la frontera.
+ *
+ * Los niveles con frontera pequena se expanden de arriba hacia abajo: cada
+ * vertice de la frontera reclama a sus vecinos sin visitar. En los niveles
+ * intermedios, donde la frontera toca casi todo el grafo, se busca de abajo
+ * hacia arriba: cada vertice sin visitar revisa sus predecesores hasta
+ * encontrar uno en la frontera y se detiene ahi. El trabajo de cada nivel se
+ * reparte en un ForkJoinPool. Una instancia no se debe usar desde varios
+ * hilos a la vez.
+ */
+public class ParallelBfs {
+
+    // Parametros de la heuristica de cambio de direccion: se pasa a buscar de
+    // abajo hacia arriba cuando las aristas de la frontera superan 1 / ALPHA
+    // de las aristas sin explorar, y se vuelve cuando la frontera baja de
+    // 1 / BETA de los vertices.
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // Cantidad de vertices de la frontera (o de palabras del conjunto de bits)
+    // por debajo de la cual una tarea ya no se divide.
+    private static final int GRAIN = 1024;
+    private static final int WORD_GRAIN = 256;
+
+    private static final VarHandle DISTANCE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private ForkJoinPool pool;
+    private int vertexCount;
+
+    private int[] offsets;
+    private int[] targets;
+    private int[] reverseOffsets;
+    private int[] reverseTargets;
+
+    // Distancia de cada vertice al origen del ultimo run, o -1.
+    private int[] distance;
+
+    // Frontera como cola, usada de arriba hacia abajo.
+    private int[] frontier;
+    private int[] next;
+    private int frontierSize;
+    private AtomicInteger nextSize = new AtomicInteger();
+
+    // Frontera como conjunto de bits, usada de abajo hacia arriba.
+    private long[] frontierBits;
+    private long[] nextBits;
+
+    // Contadores del nivel en curso.
+    private AtomicLong frontierEdges = new AtomicLong();
+    private AtomicInteger discovered = new AtomicInteger();
+
+    /**
+     * Crea el BFS. Si el CSR no tiene aristas inversas se asume que el grafo
+     * es simetrico y la busqueda de abajo hacia arriba usa las salientes.
+     *
+     * @param graph El grafo en formato CSR.
+     * @param pool  Hilos en los que se reparte cada nivel.
+     */
+    public ParallelBfs(CsrGraph<?> graph, ForkJoinPool pool) {
+        this.pool = pool;
+        vertexCount = graph.vertexCount();
+        offsets = graph.getOffsets();
+        targets = graph.getTargets();
+
+        if (graph.hasReverse()) {
+            reverseOffsets = graph.getReverseOffsets();
+            reverseTargets = graph.getReverseTargets();
+        } else {
+            reverseOffsets = offsets;
+            reverseTargets = targets;
+        }
+
+        distance = new int[vertexCount];
+        frontier = new int[vertexCount];
+        next = new int[vertexCount];
+        frontierBits = new long[(vertexCount + 63) >>> 6];
+        nextBits = new long[frontierBits.length];
+    }
+
+    /**
+     * Recorre todo lo alcanzable desde source. Las distancias quedan
+     * disponibles en getDistance hasta la siguiente consulta.
+     *
+     * @param source Identificador del origen.
+     * @return La cantidad de vertices alcanzados, incluido el origen.
+     */
+    public int run(int source) {
+        Arrays.fill(distance, -1);
+
+        distance[source] = 0;
+        frontier[0] = source;
+        frontierSize = 1;
+
+        long unexploredEdges = targets.length - degree(source);
+        long edges = degree(source);
+        int reached = 1;
+        int level = 0;
+        boolean bottomUp = false;
+
+        while (frontierSize > 0) {
+            level++;
+
+            // Elige la direccion del siguiente nivel
+            if (!bottomUp && edges > unexploredEdges / ALPHA) {
+                toBits();
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < vertexCount / BETA) {
+                toQueue();
+                bottomUp = false;
+            }
+
+            frontierEdges.set(0);
+            discovered.set(0);
+
+            if (bottomUp) {
+                Arrays.fill(nextBits, 0);
+                run(new BottomUpStep(level, 0, frontierBits.length), frontierBits.length <= WORD_GRAIN);
+
+                long[] swap = frontierBits;
+                frontierBits = nextBits;
+                nextBits = swap;
+                frontierSize = discovered.get();
+            } else {
+                nextSize.set(0);
+                run(new TopDownStep(level, 0, frontierSize), frontierSize <= GRAIN);
+
+                int[] swap = frontier;
+                frontier = next;
+                next = swap;
+                frontierSize = nextSize.get();
+            }
+
+            edges = frontierEdges.get();
+            unexploredEdges -= edges;
+            reached += frontierSize;
+        }
+
+        return reached;
+    }
+
+    /**
+     * Devuelve la distancia desde el origen del ultimo run.
+     *
+     * @param vertex Identificador del vertice.
+     * @return La distancia, o -1 si no fue alcanzado.
+     */
+    public int getDistance(int vertex) {
+        return distance[vertex];
+    }
+
+    /**
+     * Ejecuta un nivel en el pool, o en el hilo actual si es tan pequeno que
+     * no se va a dividir.
+     */
+    private void run(RecursiveAction step, boolean small) {
+        if (small) {
+            step.invoke();
+        } else {
+            pool.invoke(step);
+        }
+    }
+
+    private int degree(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    /**
+     * Pasa la frontera de la cola al conjunto de bits.
+     */
+    private void toBits() {
+        Arrays.fill(frontierBits, 0);
+        for (int i = 0; i < frontierSize; i++) {
+            frontierBits[frontier[i] >>> 6] |= 1L << frontier[i];
+        }
+    }
+
+    /**
+     * Pasa la frontera del conjunto de bits a la cola.
+     */
+    private void toQueue() {
+        frontierSize = 0;
+        for (int w = 0; w < frontierBits.length; w++) {
+            long word = frontierBits[w];
+            while (word != 0) {
+                frontier[frontierSize++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Expande de arriba hacia abajo las posiciones [from, to) de la frontera.
+     * Los vecinos se reclaman con compareAndSet para que cada uno entre una
+     * sola vez en la siguiente frontera.
+     */
+    @SuppressWarnings("serial")
+    private class TopDownStep extends RecursiveAction {
+
+        private int level;
+        private int from;
+        private int to;
+
+        TopDownStep(int level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TopDownStep(level, from, middle), new TopDownStep(level, middle, to));
+                return;
+            }
+
+            int[] found = new int[64];
+            int count = 0;
+            long edges = 0;
+
+            for (int i = from; i < to; i++) {
+                int vertex = frontier[i];
+
+                for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                    int neighbor = targets[e];
+
+                    if (distance[neighbor] == -1 && DISTANCE.compareAndSet(distance, neighbor, -1, level)) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = neighbor;
+                        edges += degree(neighbor);
+                    }
+                }
+            }
+
+            // Reserva de una vez el espacio en la siguiente frontera
+            int start = nextSize.getAndAdd(count);
+            System.arraycopy(found, 0, next, start, count);
+            frontierEdges.addAndGet(edges);
+        }
+    }
+
+    /**
+     * Busca de abajo hacia arriba un padre para los vertices sin visitar de las
+     * palabras [from, to) del conjunto de bits. Cada tarea es duena de sus
+     * palabras, asi que escribe sin sincronizar.
+     */
+    @SuppressWarnings("serial")
+    private class BottomUpStep extends RecursiveAction {
+
+        private int level;
+        private int from;
+        private int to;
+
+        BottomUpStep(int level, int from, int to) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > WORD_GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BottomUpStep(level, from, middle), new BottomUpStep(level, middle, to));
+                return;
+            }
+
+            int count = 0;
+            long edges = 0;
+            int end = Math.min(to << 6, vertexCount);
+
+            for (int vertex = from << 6; vertex < end; vertex++) {
+                if (distance[vertex] != -1) {
+                    continue;
+                }
+
+                for (int e = reverseOffsets[vertex]; e < reverseOffsets[vertex + 1]; e++) {
+                    int parent = reverseTargets[e];
+
+                    if ((frontierBits[parent >>> 6] & (1L << parent)) != 0) {
+                        distance[vertex] = level;
+                        nextBits[vertex >>> 6] |= 1L << vertex;
+                        count++;
+                        edges += degree(vertex);
+                        break;
+                    }
+                }
+            }
+
+            discovered.addAndGet(count);
+            frontierEdges.addAndGet(edges);
+        }
+    }
+}
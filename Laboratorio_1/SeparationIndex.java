@@ -0,0 +1,348 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consultas de grado de separacion sobre un AdjacencyListGraph que puede
+ * seguir cambiando.
+ *
+ * Mantiene una copia CSR del grafo, un LandmarkIndex para acotar y podar las
+ * busquedas y una cache LRU con las respuestas exactas recientes. Un cambio en
+ * el grafo solo vacia la cache: la copia y el indice se reconstruyen recien
+ * despues de responder tantas consultas sobre el grafo cambiado como
+ * referencias tiene el indice, que es lo que cuesta reconstruirlo. Mientras
+ * tanto las consultas exactas buscan en el grafo actual y las cotas se usan
+ * solo mientras sigan siendo validas: agregar relaciones solo acorta
+ * distancias, asi que la cota superior vale; eliminarlas solo las alarga, asi
+ * que vale la inferior. No es seguro para hilos.
+ */
+public class SeparationIndex<T> {
+
+    private AdjacencyListGraph<T> graph;
+    private int landmarkCount;
+
+    // Contador de modificaciones del grafo la ultima vez que se reviso.
+    private int seenAt;
+    private boolean built;
+
+    // Cambios desde que se construyo el indice y consultas respondidas sobre
+    // el grafo actual desde entonces.
+    private boolean connected;
+    private boolean disconnected;
+    private int staleQueries;
+
+    private CsrGraph<T> csr;
+    private LandmarkIndex landmarks;
+    private BfsEngine engine;
+    private Map<Long, Integer> cache;
+
+    /**
+     * Crea el indice. Se construye en la primera consulta.
+     *
+     * @param graph         El grafo, con cada relacion en ambos sentidos.
+     * @param landmarkCount La cantidad de referencias del LandmarkIndex.
+     * @param cacheSize     La cantidad de respuestas que guarda la cache.
+     */
+    public SeparationIndex(AdjacencyListGraph<T> graph, int landmarkCount, int cacheSize) {
+        this.graph = graph;
+        this.landmarkCount = landmarkCount;
+
+        // LinkedHashMap en orden de acceso descarta la entrada menos usada.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Agrega un vertice al grafo.
+     *
+     * @param vertex El vertice.
+     * @return True si el vertice es nuevo, False en caso contrario.
+     */
+    public boolean add(T vertex) {
+        check();
+        boolean added = graph.add(vertex);
+
+        // Un vertice sin relaciones no cambia ninguna distancia.
+        seenAt = graph.modificationCount();
+        return added;
+    }
+
+    /**
+     * Agrega la relacion entre from y to en ambos sentidos.
+     *
+     * @param from El primer vertice.
+     * @param to   El segundo vertice.
+     * @return True si la relacion es nueva, False en caso contrario.
+     */
+    public boolean connect(T from, T to) {
+        check();
+        boolean added = graph.connect(from, to);
+        added |= graph.connect(to, from);
+
+        if (added) {
+            connected = true;
+            cache.clear();
+        }
+
+        seenAt = graph.modificationCount();
+        return added;
+    }
+
+    /**
+     * Elimina la relacion entre from y to en ambos sentidos.
+     *
+     * @param from El primer vertice.
+     * @param to   El segundo vertice.
+     * @return True si la relacion se elimino, False en caso contrario.
+     */
+    public boolean disconnect(T from, T to) {
+        check();
+        boolean removed = graph.disconnect(from, to);
+        removed |= graph.disconnect(to, from);
+
+        if (removed) {
+            disconnected = true;
+            cache.clear();
+        }
+
+        seenAt = graph.modificationCount();
+        return removed;
+    }
+
+    /**
+     * Devuelve el grado de separacion entre dos vertices.
+     *
+     * @param from El primer vertice.
+     * @param to   El segundo vertice.
+     * @return La separacion, o -1 si alguno no esta o no estan conectados.
+     */
+    public int separation(T from, T to) {
+        check();
+
+        if (!graph.contains(from) || !graph.contains(to)) {
+            return -1;
+        }
+
+        if (from.equals(to)) {
+            return 0;
+        }
+
+        if (!built || (isStale() && staleQueries >= landmarkCount)) {
+            build();
+        }
+
+        int source = csr.getId(from);
+        int target = csr.getId(to);
+
+        // Los vertices agregados despues de construir no estan en la copia ni
+        // en la cache.
+        if (source == -1 || target == -1) {
+            staleQueries++;
+            return search(from, to, Integer.MAX_VALUE);
+        }
+
+        // El grafo es simetrico, asi que el par se guarda ordenado.
+        long key = source < target ? ((long) source << 32) | target : ((long) target << 32) | source;
+
+        Integer cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int separation;
+        if (!isStale()) {
+            separation = landmarks.distance(engine, source, target);
+        } else if (!connected && landmarks.lowerBound(source, target) == Integer.MAX_VALUE) {
+            separation = -1;
+        } else {
+            staleQueries++;
+            separation = search(from, to, disconnected ? Integer.MAX_VALUE : landmarks.upperBound(source, target));
+        }
+
+        cache.put(key, separation);
+        return separation;
+    }
+
+    /**
+     * Devuelve una cota inferior de la separacion sin buscar en el grafo.
+     *
+     * @param from El primer vertice.
+     * @param to   El segundo vertice.
+     * @return La cota, -1 si alguno no esta, o Integer.MAX_VALUE si no estan
+     *         conectados.
+     */
+    public int lowerBound(T from, T to) {
+        check();
+
+        if (!graph.contains(from) || !graph.contains(to)) {
+            return -1;
+        }
+
+        if (!built) {
+            build();
+        }
+
+        int source = csr.getId(from);
+        int target = csr.getId(to);
+
+        // Con relaciones nuevas las distancias de la copia pueden haber bajado.
+        if (source == -1 || target == -1 || connected) {
+            return 0;
+        }
+
+        return landmarks.lowerBound(source, target);
+    }
+
+    /**
+     * Devuelve una cota superior de la separacion sin buscar en el grafo.
+     *
+     * @param from El primer vertice.
+     * @param to   El segundo vertice.
+     * @return La cota, -1 si alguno no esta, o Integer.MAX_VALUE si ninguna
+     *         referencia alcanza a ambos.
+     */
+    public int upperBound(T from, T to) {
+        check();
+
+        if (!graph.contains(from) || !graph.contains(to)) {
+            return -1;
+        }
+
+        if (from.equals(to)) {
+            return 0;
+        }
+
+        if (!built) {
+            build();
+        }
+
+        int source = csr.getId(from);
+        int target = csr.getId(to);
+
+        // Sin relaciones eliminadas las distancias de la copia no subieron.
+        if (source == -1 || target == -1 || disconnected) {
+            return Integer.MAX_VALUE;
+        }
+
+        return landmarks.upperBound(source, target);
+    }
+
+    /**
+     * Devuelve la cantidad de respuestas guardadas en la cache.
+     *
+     * @return La cantidad de respuestas.
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Devuelve True si la copia y el indice reflejan el grafo actual.
+     *
+     * @return True si el indice esta al dia, False en caso contrario.
+     */
+    public boolean isCurrent() {
+        check();
+        return built && !isStale();
+    }
+
+    /**
+     * Detecta los cambios hechos directamente sobre el grafo. Como no se sabe
+     * si agregaron o eliminaron relaciones, ninguna cota sigue valiendo.
+     */
+    private void check() {
+        if (graph.modificationCount() != seenAt) {
+            connected = true;
+            disconnected = true;
+            cache.clear();
+            seenAt = graph.modificationCount();
+        }
+    }
+
+    private boolean isStale() {
+        return connected || disconnected;
+    }
+
+    /**
+     * Reconstruye la copia y el indice desde el grafo actual.
+     */
+    private void build() {
+        csr = graph.toCsr();
+        landmarks = new LandmarkIndex(csr, landmarkCount);
+        engine = new BfsEngine(csr);
+        cache.clear();
+
+        connected = false;
+        disconnected = false;
+        staleQueries = 0;
+        built = true;
+    }
+
+    /**
+     * BFS bidireccional sobre el grafo actual. Expande por niveles el lado con
+     * la frontera mas chica y se detiene en limit, que debe ser una cota
+     * superior valida.
+     *
+     * @return La separacion, o -1 si no estan conectados.
+     */
+    private int search(T from, T to, int limit) {
+        Map<T, Integer> forward = new HashMap<>();
+        Map<T, Integer> backward = new HashMap<>();
+        List<T> forwardFrontier = new ArrayList<>();
+        List<T> backwardFrontier = new ArrayList<>();
+
+        forward.put(from, 0);
+        backward.put(to, 0);
+        forwardFrontier.add(from);
+        backwardFrontier.add(to);
+
+        int depth = 0;
+        int[] best = { Integer.MAX_VALUE };
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty() && depth < limit) {
+            boolean fromSource = forwardFrontier.size() <= backwardFrontier.size();
+            Map<T, Integer> near = fromSource ? forward : backward;
+            Map<T, Integer> far = fromSource ? backward : forward;
+            List<T> frontier = fromSource ? forwardFrontier : backwardFrontier;
+            List<T> next = new ArrayList<>();
+
+            for (T vertex : frontier) {
+                int level = near.get(vertex) + 1;
+
+                graph.forEachOutNeighbor(vertex, neighbor -> {
+                    Integer other = far.get(neighbor);
+                    if (other != null) {
+                        best[0] = Math.min(best[0], level + other);
+                    }
+                    if (!near.containsKey(neighbor)) {
+                        near.put(neighbor, level);
+                        next.add(neighbor);
+                    }
+                });
+            }
+
+            // Al terminar el nivel el minimo encontrado es la distancia.
+            if (best[0] != Integer.MAX_VALUE) {
+                return best[0];
+            }
+
+            if (fromSource) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+            depth++;
+        }
+
+        if (depth >= limit) {
+            return limit;
+        }
+
+        return -1;
+    }
+}
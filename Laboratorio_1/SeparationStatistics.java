@@ -0,0 +1,298 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Correr de la siguiente forma: javac *.java && java SeparationStatistics [fuentes]
+//Sin argumento usa a todas las personas de input.txt como origen; con un numero
+//toma esa cantidad de origenes al azar.
+
+/**
+ * Estadisticas de separacion de toda la poblacion con BFS de multiples
+ * origenes.
+ *
+ * Recorre 64 BFS a la vez, uno por bit de un long: para cada vertice se
+ * guarda con un bit por origen si ya fue visitado y si esta en la frontera.
+ * Un nivel completo es una sola pasada por el CSR en la que cada vertice toma
+ * el OR de las fronteras de sus vecinos, asi cada arista se lee una vez para
+ * los 64 origenes. La pasada se reparte en un ForkJoinPool por rangos de
+ * vertices; cada tarea solo escribe las palabras de sus vertices.
+ */
+public class SeparationStatistics {
+
+    private static final int GRAIN = 4096;
+
+    private int vertexCount;
+    private int[] reverseOffsets;
+    private int[] reverseTargets;
+
+    // Pares (origen, destino) a cada distancia; histogram[0] son los origenes.
+    private long[] histogram = new long[16];
+    private int[] sources;
+    private int[] eccentricity;
+
+    // Estado del lote de 64 origenes en curso.
+    private long[] visited;
+    private long[] frontier;
+    private long[] next;
+    private AtomicLong found = new AtomicLong();
+    private AtomicLong reachedBits = new AtomicLong();
+
+    /**
+     * Calcula las estadisticas desde los origenes dados. Si el CSR no tiene
+     * aristas inversas se asume que el grafo es simetrico.
+     *
+     * @param graph   El grafo en formato CSR.
+     * @param sources Identificadores de los origenes.
+     * @param pool    Hilos en los que se reparte cada nivel.
+     */
+    public SeparationStatistics(CsrGraph<?> graph, int[] sources, ForkJoinPool pool) {
+        vertexCount = graph.vertexCount();
+
+        if (graph.hasReverse()) {
+            reverseOffsets = graph.getReverseOffsets();
+            reverseTargets = graph.getReverseTargets();
+        } else {
+            reverseOffsets = graph.getOffsets();
+            reverseTargets = graph.getTargets();
+        }
+
+        this.sources = sources;
+        eccentricity = new int[sources.length];
+        visited = new long[vertexCount];
+        frontier = new long[vertexCount];
+        next = new long[vertexCount];
+
+        for (int start = 0; start < sources.length; start += 64) {
+            runBatch(start, Math.min(64, sources.length - start), pool);
+        }
+
+        // Ya no se necesitan los arreglos del recorrido
+        visited = null;
+        frontier = null;
+        next = null;
+    }
+
+    /**
+     * Recorre a la vez los origenes sources[start .. start + count - 1].
+     */
+    private void runBatch(int start, int count, ForkJoinPool pool) {
+        Arrays.fill(visited, 0);
+        Arrays.fill(frontier, 0);
+
+        for (int i = 0; i < count; i++) {
+            visited[sources[start + i]] |= 1L << i;
+            frontier[sources[start + i]] |= 1L << i;
+        }
+        histogram[0] += count;
+
+        long full = count == 64 ? -1L : (1L << count) - 1;
+
+        for (int level = 1;; level++) {
+            found.set(0);
+            reachedBits.set(0);
+            pool.invoke(new Step(full, 0, vertexCount));
+
+            if (found.get() == 0) {
+                break;
+            }
+
+            if (level == histogram.length) {
+                histogram = Arrays.copyOf(histogram, level * 2);
+            }
+            histogram[level] += found.get();
+
+            // Los origenes que alcanzaron vertices nuevos llegan al menos hasta aqui
+            long bits = reachedBits.get();
+            while (bits != 0) {
+                eccentricity[start + Long.numberOfTrailingZeros(bits)] = level;
+                bits &= bits - 1;
+            }
+
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+    }
+
+    /**
+     * Calcula un nivel para los vertices [from, to): cada vertice recibe los
+     * origenes que estan en la frontera de algun predecesor y que todavia no
+     * lo habian visitado.
+     */
+    @SuppressWarnings("serial")
+    private class Step extends RecursiveAction {
+
+        private long full;
+        private int from;
+        private int to;
+
+        Step(long full, int from, int to) {
+            this.full = full;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Step(full, from, middle), new Step(full, middle, to));
+                return;
+            }
+
+            long count = 0;
+            long reached = 0;
+
+            for (int v = from; v < to; v++) {
+                long seen = visited[v];
+
+                // Ya lo visitaron todos los origenes del lote
+                if (seen == full) {
+                    next[v] = 0;
+                    continue;
+                }
+
+                long incoming = 0;
+                for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                    incoming |= frontier[reverseTargets[e]];
+                }
+
+                long discovered = incoming & ~seen;
+                next[v] = discovered;
+                visited[v] = seen | discovered;
+                count += Long.bitCount(discovered);
+                reached |= discovered;
+            }
+
+            if (count > 0) {
+                found.addAndGet(count);
+                reachedBits.accumulateAndGet(reached, (a, b) -> a | b);
+            }
+        }
+    }
+
+    /**
+     * Devuelve cuantos pares (origen, destino) estan a cada distancia; la
+     * posicion 0 cuenta los origenes consigo mismos.
+     *
+     * @return El histograma, sin ceros al final.
+     */
+    public long[] getHistogram() {
+        int length = histogram.length;
+        while (length > 1 && histogram[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(histogram, length);
+    }
+
+    /**
+     * Devuelve la cantidad de pares (origen, destino) sin camino.
+     *
+     * @return La cantidad de pares inalcanzables.
+     */
+    public long getUnreachablePairs() {
+        long reached = 0;
+        for (long pairs : histogram) {
+            reached += pairs;
+        }
+        return (long) sources.length * vertexCount - reached;
+    }
+
+    /**
+     * Devuelve la separacion promedio entre los pares conectados de personas
+     * distintas.
+     *
+     * @return El promedio, o 0 si no hay pares conectados.
+     */
+    public double getAverageSeparation() {
+        long pairs = 0;
+        long total = 0;
+        for (int level = 1; level < histogram.length; level++) {
+            pairs += histogram[level];
+            total += level * histogram[level];
+        }
+        return pairs == 0 ? 0 : (double) total / pairs;
+    }
+
+    /**
+     * Devuelve la excentricidad del i-esimo origen: la mayor distancia a una
+     * persona alcanzable desde el.
+     *
+     * @param i Posicion del origen en el arreglo de origenes.
+     * @return La excentricidad.
+     */
+    public int getEccentricity(int i) {
+        return eccentricity[i];
+    }
+
+    /**
+     * Devuelve la mayor excentricidad de los origenes. Si los origenes son
+     * todos los vertices es el diametro; si son una muestra es una cota
+     * inferior.
+     *
+     * @return La mayor excentricidad.
+     */
+    public int getDiameter() {
+        int diameter = 0;
+        for (int value : eccentricity) {
+            diameter = Math.max(diameter, value);
+        }
+        return diameter;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        CsrGraph<String> csr = CsrSnapshot.load(Path.of("input.txt"), Path.of("input.csr"));
+        int n = csr.vertexCount();
+
+        // Todos los vertices, o una muestra sin repetidos con semilla fija
+        int[] sources = new int[n];
+        for (int v = 0; v < n; v++) {
+            sources[v] = v;
+        }
+
+        boolean sampled = args.length > 0 && Integer.parseInt(args[0]) < n;
+        if (sampled) {
+            int count = Integer.parseInt(args[0]);
+            Random random = new Random(42);
+            for (int i = 0; i < count; i++) {
+                int j = i + random.nextInt(n - i);
+                int swap = sources[i];
+                sources[i] = sources[j];
+                sources[j] = swap;
+            }
+            sources = Arrays.copyOf(sources, count);
+        }
+
+        long start = System.nanoTime();
+        SeparationStatistics statistics = new SeparationStatistics(csr, sources, ForkJoinPool.commonPool());
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("personas=%d relaciones=%d origenes=%d%n", n, csr.edgeCount() / 2, sources.length);
+        System.out.println("distancia pares");
+
+        long[] histogram = statistics.getHistogram();
+        for (int level = 1; level < histogram.length; level++) {
+            System.out.printf("%9d %d%n", level, histogram[level]);
+        }
+
+        System.out.printf("inalcanzables=%d%n", statistics.getUnreachablePairs());
+        System.out.printf("separacion promedio=%.4f%n", statistics.getAverageSeparation());
+
+        int peripheral = 0;
+        for (int i = 1; i < sources.length; i++) {
+            if (statistics.getEccentricity(i) > statistics.getEccentricity(peripheral)) {
+                peripheral = i;
+            }
+        }
+
+        if (sources.length > 0) {
+            System.out.printf("diametro%s%d (excentricidad de %s)%n", sampled ? ">=" : "=",
+                    statistics.getDiameter(), csr.getVertex(sources[peripheral]));
+        }
+        System.out.printf("tiempo=%.3fs%n", elapsed / 1e9);
+    }
+}
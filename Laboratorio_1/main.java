@@ -0,0 +1,341 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+//Correr de la siguiente forma: javac *.java && java -ea main
+
+public class main {
+    public static void main(String[] args) throws IOException {
+
+        System.out.println("Inicio de casos de pruebas");
+
+        // Camino A - B - C - D - E
+        AdjacencyListGraph<String> graph = DegreesOfSeparation.buildGraph(List.of("A B", "B C", "C D", "D E"));
+        SeparationIndex<String> index = new SeparationIndex<>(graph, 3, 8);
+
+        // separation() y cache
+        assert index.separation("A", "E") == 4;
+        assert index.cacheSize() == 1;
+        assert index.separation("E", "A") == 4;
+        assert index.cacheSize() == 1;
+        assert index.separation("A", "A") == 0;
+        assert index.separation("A", "Z") == -1;
+        assert index.isCurrent();
+
+        // Cotas de las referencias
+        assert index.lowerBound("A", "E") <= 4 && index.upperBound("A", "E") >= 4;
+        assert index.lowerBound("B", "D") <= 2 && index.upperBound("B", "D") >= 2;
+        assert index.lowerBound("A", "Z") == -1;
+        assert index.upperBound("A", "A") == 0;
+
+        // connect() vacia la cache sin reconstruir el indice
+        assert index.connect("A", "E");
+        assert !index.connect("E", "A");
+        assert index.cacheSize() == 0;
+        assert !index.isCurrent();
+        assert index.separation("A", "E") == 1;
+        assert index.separation("B", "E") == 2;
+        assert index.lowerBound("A", "E") == 0;
+        assert index.upperBound("A", "E") >= 1;
+
+        // disconnect()
+        assert index.disconnect("A", "E");
+        assert !index.disconnect("A", "E");
+        assert index.cacheSize() == 0;
+        assert index.separation("A", "E") == 4;
+        assert index.upperBound("A", "E") == Integer.MAX_VALUE;
+
+        // Despues de tantas consultas como referencias se reconstruye
+        assert index.separation("A", "D") == 3;
+        assert index.isCurrent();
+        assert index.upperBound("A", "E") >= 4;
+
+        // add() de un vertice nuevo y cambios hechos directamente en el grafo
+        assert index.add("F");
+        assert index.isCurrent();
+        assert index.separation("A", "F") == -1;
+        assert graph.connect("E", "F") && graph.connect("F", "E");
+        assert !index.isCurrent();
+        assert index.separation("A", "F") == 5;
+
+        // Consultas al azar contra un BFS sobre el grafo actual
+        Random random = new Random(7);
+        AdjacencyListGraph<Integer> randomGraph = new AdjacencyListGraph<>();
+        SeparationIndex<Integer> randomIndex = new SeparationIndex<>(randomGraph, 4, 64);
+        for (int v = 0; v < 200; v++) {
+            randomIndex.add(v);
+        }
+
+        for (int step = 0; step < 3000; step++) {
+            int u = random.nextInt(200);
+            int v = random.nextInt(200);
+
+            if (random.nextInt(4) == 0) {
+                randomIndex.disconnect(u, v);
+            } else if (random.nextInt(3) == 0) {
+                randomIndex.connect(u, v);
+            }
+
+            int a = random.nextInt(200);
+            int b = random.nextInt(200);
+            CsrGraph<Integer> csr = randomGraph.toCsr();
+            int expected = new BfsEngine(csr).distance(csr.getId(a), csr.getId(b));
+
+            assert randomIndex.separation(a, b) == expected;
+            if (expected != -1) {
+                assert randomIndex.lowerBound(a, b) <= expected;
+                assert randomIndex.upperBound(a, b) >= expected;
+            }
+        }
+
+        // path() y shortestPaths() en una cuadricula de 4 x 5, donde de una
+        // esquina a la opuesta hay C(7, 3) = 35 caminos mas cortos
+        AdjacencyListGraph<Integer> grid = new AdjacencyListGraph<>();
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 5; column++) {
+                int cell = row * 5 + column;
+                grid.add(cell);
+                if (column > 0) {
+                    grid.connect(cell, cell - 1);
+                    grid.connect(cell - 1, cell);
+                }
+                if (row > 0) {
+                    grid.connect(cell, cell - 5);
+                    grid.connect(cell - 5, cell);
+                }
+            }
+        }
+        CsrGraph<Integer> gridCsr = grid.toCsr();
+        BfsEngine gridEngine = new BfsEngine(gridCsr);
+        int corner = gridCsr.getId(0);
+        int opposite = gridCsr.getId(19);
+
+        assert gridEngine.countShortestPaths(corner, opposite) == 35;
+        for (int k : new int[] { 0, 1, 10, 35, 100 }) {
+            checkPaths(gridCsr, gridEngine, corner, opposite, k);
+        }
+
+        // Grafos al azar dirigidos y simetricos, entre todos los pares
+        for (int trial = 0; trial < 20; trial++) {
+            AdjacencyListGraph<Integer> small = new AdjacencyListGraph<>();
+            boolean symmetric = trial % 2 == 0;
+            for (int v = 0; v < 25; v++) {
+                small.add(v);
+            }
+            for (int e = 0; e < 60; e++) {
+                int u = random.nextInt(25);
+                int v = random.nextInt(25);
+                small.connect(u, v);
+                if (symmetric) {
+                    small.connect(v, u);
+                }
+            }
+
+            CsrGraph<Integer> smallCsr = small.toCsr(!symmetric);
+            BfsEngine smallEngine = new BfsEngine(smallCsr);
+            for (int u = 0; u < 25; u++) {
+                for (int v = 0; v < 25; v++) {
+                    checkPaths(smallCsr, smallEngine, u, v, 1 + random.nextInt(8));
+                }
+            }
+        }
+
+        // CsrSnapshot: ida y vuelta, invalidacion por tamano y fecha, y copias
+        // danadas o truncadas
+        Path text = Files.createTempFile("main", ".txt");
+        Path snapshot = Files.createTempFile("main", ".csr");
+        Files.delete(snapshot);
+        Files.writeString(text, "A B\nB C\n");
+
+        CsrGraph<String> loaded = CsrSnapshot.load(text, snapshot);
+        assert Files.isRegularFile(snapshot);
+        assert CsrSnapshot.read(snapshot, Files.size(text), Files.getLastModifiedTime(text).toMillis()) != null;
+        assert sameGraph(CsrSnapshot.load(text, snapshot), loaded);
+        assert sameGraph(loaded, DegreesOfSeparation.buildGraph(List.of("A B", "B C")).toCsr());
+
+        // Una linea nueva cambia el tamano y la copia se vuelve a escribir
+        long oldModified = Files.getLastModifiedTime(text).toMillis();
+        Files.writeString(text, "C D\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(text, FileTime.fromMillis(oldModified + 2000));
+        loaded = CsrSnapshot.load(text, snapshot);
+        assert loaded.vertexCount() == 4 && loaded.edgeCount() == 6;
+        assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 2000) != null;
+
+        // Mismo tamano con otro contenido: solo cambia la fecha
+        Files.writeString(text, "A B\nB C\nC E\n");
+        Files.setLastModifiedTime(text, FileTime.fromMillis(oldModified + 4000));
+        assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 4000) == null;
+        loaded = CsrSnapshot.load(text, snapshot);
+        assert loaded.getId("E") != -1 && loaded.getId("D") == -1;
+
+        // Un byte cambiado no pasa el CRC y uno de mas no pasa el largo
+        CsrGraph<String> expectedGraph = DegreesOfSeparation.buildGraph(List.of("A B", "B C", "C E")).toCsr();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        for (int i : new int[] { 40, bytes.length / 2, bytes.length - 9, bytes.length - 1 }) {
+            byte[] corrupted = bytes.clone();
+            corrupted[i] ^= 0x10;
+            Files.write(snapshot, corrupted);
+            assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 4000) == null;
+            assert sameGraph(CsrSnapshot.load(text, snapshot), expectedGraph);
+        }
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length + 1));
+        assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 4000) == null;
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 4));
+        assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 4000) == null;
+        assert sameGraph(CsrSnapshot.load(text, snapshot), expectedGraph);
+        assert CsrSnapshot.read(snapshot, Files.size(text), oldModified + 4000) != null;
+
+        Files.delete(text);
+        Files.delete(snapshot);
+
+        // EdgeListParser.load() contra buildGraph().toCsr() con '\r' finales,
+        // tabuladores, repetidas y lazos, y con porciones chicas para que las
+        // lineas se corten entre una porcion y la siguiente
+        Path edges = Files.createTempFile("main", ".txt");
+        for (int trial = 0; trial < 30; trial++) {
+            List<String> lines = new ArrayList<>();
+            StringBuilder content = new StringBuilder();
+            int people = 2 + random.nextInt(12);
+
+            for (int line = 0; line < 1 + random.nextInt(80); line++) {
+                String from = "p" + random.nextInt(people);
+                String to = "p" + random.nextInt(people);
+                lines.add(from + " " + to);
+
+                String separator = random.nextBoolean() ? " " : random.nextBoolean() ? "\t" : " \t ";
+                content.append(from).append(separator).append(to);
+                content.append(random.nextBoolean() ? "\r\n" : "\n");
+            }
+            if (random.nextBoolean()) {
+                content.setLength(content.length() - 1);
+            }
+
+            Files.writeString(edges, content);
+            CsrGraph<String> expectedEdges = DegreesOfSeparation.buildGraph(lines).toCsr();
+
+            assert sameGraph(EdgeListParser.load(edges), expectedEdges);
+            for (long segment : new long[] { 16, 17, 23, 64 }) {
+                assert sameGraph(EdgeListParser.load(edges, Long.MAX_VALUE, segment), expectedEdges);
+            }
+        }
+        Files.delete(edges);
+
+        // IncrementalSeparation.poll() aplica una linea solo al llegar su '\n'
+        // y recarga el archivo si se reescribe con el mismo tamano o mas
+        Path followed = Files.createTempFile("main", ".txt");
+        Path followedSnapshot = Files.createTempFile("main", ".csr");
+        Files.delete(followedSnapshot);
+        Files.writeString(followed, "a b\nb c\nc d\nd e\n");
+
+        IncrementalSeparation incremental = new IncrementalSeparation(followed, followedSnapshot);
+        assert incremental.separation("a", "e") == 4;
+
+        Files.writeString(followed, "a e", StandardOpenOption.APPEND);
+        assert incremental.poll() == 0;
+        assert incremental.separation("a", "e") == 4;
+        Files.writeString(followed, "\n", StandardOpenOption.APPEND);
+        assert incremental.poll() == 1;
+        assert incremental.separation("a", "e") == 1;
+        assert incremental.poll() == 0;
+
+        long followedModified = Files.getLastModifiedTime(followed).toMillis();
+        Files.writeString(followed, "a b\nb c\nc d\nd f\nf e\n");
+        Files.setLastModifiedTime(followed, FileTime.fromMillis(followedModified + 2000));
+        assert incremental.poll() == 0;
+        assert incremental.separation("a", "e") == 5;
+
+        Files.writeString(followed, "a b\nb c\nc d\nd e\ne f\nf g\n");
+        Files.setLastModifiedTime(followed, FileTime.fromMillis(followedModified + 4000));
+        assert incremental.poll() == 0;
+        assert incremental.separation("a", "e") == 4;
+        assert incremental.separation("a", "g") == 6;
+
+        Files.delete(followed);
+        Files.deleteIfExists(followedSnapshot);
+
+        System.out.println("Todos los casos funcionan");
+
+    }
+
+    /**
+     * Revisa que path() y shortestPaths() devuelvan cadenas de aristas del
+     * largo mas corto, distintas entre si y tantas como min(k, cantidad de
+     * caminos mas cortos).
+     */
+    private static void checkPaths(CsrGraph<Integer> graph, BfsEngine engine, int source, int target, int k) {
+        int distance = engine.distance(source, target);
+        int[] path = engine.path(source, target);
+        long count = engine.countShortestPaths(source, target);
+        List<int[]> paths = engine.shortestPaths(source, target, k);
+
+        if (distance == -1) {
+            assert path == null && count == 0 && paths.isEmpty();
+            return;
+        }
+
+        assert count >= 1;
+        assert isChain(graph, path, source, target, distance);
+        assert paths.size() == Math.min(k, count);
+
+        Set<String> distinct = new HashSet<>();
+        for (int[] shortest : paths) {
+            assert isChain(graph, shortest, source, target, distance);
+            assert distinct.add(Arrays.toString(shortest));
+        }
+    }
+
+    /**
+     * Devuelve True si path va de source a target en distance aristas del
+     * grafo.
+     */
+    private static boolean isChain(CsrGraph<Integer> graph, int[] path, int source, int target, int distance) {
+        if (path.length != distance + 1 || path[0] != source || path[distance] != target) {
+            return false;
+        }
+
+        for (int i = 0; i < distance; i++) {
+            boolean[] found = { false };
+            int next = path[i + 1];
+            graph.forEachOutNeighbor(path[i], neighbor -> found[0] |= neighbor == next);
+            if (!found[0]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Devuelve True si ambos grafos tienen los mismos vertices y cada uno los
+     * mismos sucesores, comparados por nombre.
+     */
+    private static boolean sameGraph(CsrGraph<String> a, CsrGraph<String> b) {
+        if (a.vertexCount() != b.vertexCount() || a.edgeCount() != b.edgeCount()) {
+            return false;
+        }
+
+        for (int v = 0; v < a.vertexCount(); v++) {
+            int w = b.getId(a.getVertex(v));
+            if (w == -1 || !neighbors(a, v).equals(neighbors(b, w))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Set<String> neighbors(CsrGraph<String> graph, int id) {
+        Set<String> names = new HashSet<>();
+        graph.forEachOutNeighbor(id, neighbor -> names.add(graph.getVertex(neighbor)));
+        return names;
+    }
+}
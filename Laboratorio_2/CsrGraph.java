@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Copia inmutable de un grafo en formato CSR (compressed sparse row).
+ *
+ * Cada vertice recibe un identificador entero denso entre 0 y n - 1. Los
+ * sucesores del vertice v son targets[offsets[v]] .. targets[offsets[v + 1] - 1],
+ * asi cada arista ocupa 4 bytes contiguos en memoria. Opcionalmente guarda
+ * tambien el CSR inverso con los predecesores de cada vertice.
+ */
+public class CsrGraph<T> {
+
+    private List<T> vertices;
+    private Map<T, Integer> ids;
+
+    private int[] offsets;
+    private int[] targets;
+
+    // CSR inverso, es null si no se pidio al construir la copia.
+    private int[] reverseOffsets;
+    private int[] reverseTargets;
+
+    /**
+     * Construye el CSR a partir de los arreglos ya calculados.
+     *
+     * @param vertices    Lista de vertices, la posicion es el identificador.
+     * @param offsets     Arreglo de n + 1 posiciones con el inicio de cada fila.
+     * @param targets     Arreglo con los identificadores de los sucesores.
+     * @param withReverse True si tambien se construye el CSR inverso.
+     */
+    public CsrGraph(List<T> vertices, int[] offsets, int[] targets, boolean withReverse) {
+        this(vertices, indexVertices(vertices), offsets, targets, withReverse);
+    }
+
+    /**
+     * Construye el CSR reutilizando un diccionario de identificadores ya
+     * calculado.
+     *
+     * @param vertices    Lista de vertices, la posicion es el identificador.
+     * @param ids         Diccionario de vertice a identificador.
+     * @param offsets     Arreglo de n + 1 posiciones con el inicio de cada fila.
+     * @param targets     Arreglo con los identificadores de los sucesores.
+     * @param withReverse True si tambien se construye el CSR inverso.
+     */
+    CsrGraph(List<T> vertices, Map<T, Integer> ids, int[] offsets, int[] targets, boolean withReverse) {
+        this.vertices = vertices;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+
+        if (withReverse) {
+            buildReverse();
+        }
+    }
+
+    /**
+     * Asigna a cada vertice su posicion en la lista como identificador.
+     *
+     * @param vertices Lista de vertices.
+     * @return Diccionario de vertice a identificador.
+     */
+    private static <T> Map<T, Integer> indexVertices(List<T> vertices) {
+        Map<T, Integer> ids = new HashMap<>(vertices.size() * 2);
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+        return ids;
+    }
+
+    /**
+     * Construye el CSR inverso con un ordenamiento por conteo de las aristas.
+     */
+    private void buildReverse() {
+        int n = vertices.size();
+        reverseOffsets = new int[n + 1];
+        reverseTargets = new int[targets.length];
+
+        // Cuenta el grado de entrada de cada vertice.
+        for (int target : targets) {
+            reverseOffsets[target + 1]++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        // Coloca cada arista en la fila de su destino.
+        int[] next = new int[n];
+        System.arraycopy(reverseOffsets, 0, next, 0, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                reverseTargets[next[targets[e]]++] = v;
+            }
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de vertices.
+     *
+     * @return La cantidad de vertices.
+     */
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Devuelve la cantidad de aristas.
+     *
+     * @return La cantidad de aristas.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Devuelve el identificador entero del vertice.
+     *
+     * @param vertex El vertice a buscar.
+     * @return El identificador, o -1 si el vertice no esta.
+     */
+    public int getId(T vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Devuelve el vertice que corresponde a un identificador.
+     *
+     * @param id El identificador del vertice.
+     * @return El vertice.
+     */
+    public T getVertex(int id) {
+        return vertices.get(id);
+    }
+
+    /**
+     * Devuelve la cantidad de sucesores del vertice.
+     *
+     * @param id El identificador del vertice.
+     * @return El grado de salida.
+     */
+    public int outDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Devuelve la cantidad de predecesores del vertice.
+     *
+     * @param id El identificador del vertice.
+     * @return El grado de entrada.
+     */
+    public int inDegree(int id) {
+        return reverseOffsets()[id + 1] - reverseOffsets[id];
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice.
+     *
+     * @param id     El identificador del vertice.
+     * @param action La accion que recibe el identificador de cada sucesor.
+     */
+    public void forEachOutNeighbor(int id, IntConsumer action) {
+        for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+            action.accept(targets[e]);
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice.
+     *
+     * @param id     El identificador del vertice.
+     * @param action La accion que recibe el identificador de cada predecesor.
+     */
+    public void forEachInNeighbor(int id, IntConsumer action) {
+        int[] rowStart = reverseOffsets();
+        for (int e = rowStart[id]; e < rowStart[id + 1]; e++) {
+            action.accept(reverseTargets[e]);
+        }
+    }
+
+    /**
+     * Devuelve True si la copia incluye el CSR inverso.
+     *
+     * @return True si hay CSR inverso, False en caso contrario.
+     */
+    public boolean hasReverse() {
+        return reverseOffsets != null;
+    }
+
+    /**
+     * Devuelve el arreglo de inicios de fila. No debe modificarse.
+     *
+     * @return El arreglo offsets de n + 1 posiciones.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Devuelve el arreglo de sucesores. No debe modificarse.
+     *
+     * @return El arreglo targets.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Devuelve el arreglo de inicios de fila del CSR inverso. No debe
+     * modificarse.
+     *
+     * @return El arreglo de n + 1 posiciones.
+     */
+    public int[] getReverseOffsets() {
+        return reverseOffsets();
+    }
+
+    /**
+     * Devuelve el arreglo de predecesores del CSR inverso. No debe modificarse.
+     *
+     * @return El arreglo de predecesores.
+     */
+    public int[] getReverseTargets() {
+        reverseOffsets();
+        return reverseTargets;
+    }
+
+    /**
+     * Devuelve la lista de vertices ordenada por identificador.
+     *
+     * @return La lista de vertices.
+     */
+    public List<T> getAllVertices() {
+        return new ArrayList<>(vertices);
+    }
+
+    /**
+     * Verifica que exista el CSR inverso antes de usarlo.
+     *
+     * @return El arreglo de inicios de fila del CSR inverso.
+     */
+    private int[] reverseOffsets() {
+        if (reverseOffsets == null) {
+            throw new IllegalStateException("El CSR no incluye las aristas inversas");
+        }
+        return reverseOffsets;
+    }
+}
@@ -0,0 +1,662 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//Correr de la siguiente forma: javac *.java && java IncrementalScc
+//Carga Caracas.txt y luego lee de la entrada estandar lineas "+ origen, destino"
+//para agregar una conexion o "- origen, destino" para quitarla, e imprime el
+//total de deliverys despues de cada cambio.
+
+/**
+ * Componentes fuertemente conectados de la red de comercios mantenidos
+ * mientras llegan y se quitan conexiones.
+ *
+ * Los componentes se guardan en un union-find con la lista de miembros de
+ * cada uno, y se mantiene un orden topologico de los componentes (Pearce y
+ * Kelly). Al agregar la conexion u -> v entre componentes distintos:
+ *
+ * - Si u ya va antes que v en el orden no puede cerrar un ciclo.
+ * - Si no, se busca hacia adelante desde v y hacia atras desde u solo entre
+ *   los componentes que estan entre los dos en el orden. Si la busqueda desde
+ *   v llega a u, se unen los componentes que estan en un camino de v a u, que
+ *   son los que cierra el nuevo ciclo. Luego se reordenan solo los
+ *   componentes visitados.
+ *
+ * Las busquedas recorren solo las conexiones entre componentes distintos:
+ * cada componente guarda las que salen y entran de el, y descarta las que
+ * quedaron adentro despues de una union o ya no existen cuando las recorre.
+ *
+ * Al quitar una conexion dentro de un componente se vuelve a calcular con
+ * Tarjan solo ese componente; si se divide, el orden topologico se vuelve a
+ * calcular completo antes de la siguiente conexion. Los contadores de
+ * localidades pequenas, medianas y grandes se actualizan con cada union o
+ * division, asi el total de deliverys se consulta en O(1).
+ */
+public class IncrementalScc {
+
+    // Indice de cada comercio y sus conexiones en ambos sentidos.
+    private Map<String, Integer> nameToIndex = new HashMap<>();
+    private List<String> names = new ArrayList<>();
+    private List<Set<Integer>> successors = new ArrayList<>();
+    private List<Set<Integer>> predecessors = new ArrayList<>();
+
+    // Union-find: padre de cada nodo, y para cada raiz los miembros del
+    // componente y su menor indice.
+    private int[] parent = new int[16];
+    private List<List<Integer>> members = new ArrayList<>();
+    private int[] smallest = new int[16];
+
+    // Conexiones que salen y entran de cada componente, indexadas por su
+    // raiz. Cada una se guarda como (origen << 32) | destino.
+    private List<List<Long>> outgoing = new ArrayList<>();
+    private List<List<Long>> incoming = new ArrayList<>();
+
+    // Cantidad de localidades pequenas, medianas y grandes.
+    private int[] localityCounts = new int[3];
+
+    // Posicion de cada componente en el orden topologico, indexada por su
+    // raiz. Las posiciones son distintas pero pueden tener huecos.
+    private int[] order = new int[16];
+    private int nextOrder;
+    private boolean orderValid = true;
+
+    // Marcas de las busquedas, con sello para no limpiarlas.
+    private int[] forwardMark = new int[16];
+    private int[] backwardMark = new int[16];
+    private int epoch;
+
+    /**
+     * Crea la estructura sin comercios.
+     */
+    public IncrementalScc() {
+    }
+
+    /**
+     * Crea la estructura a partir de un grafo completo, calculando los
+     * componentes iniciales con Tarjan.
+     *
+     * @param graph El grafo dirigido de conexiones entre comercios.
+     */
+    public IncrementalScc(CsrGraph<String> graph) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        for (String name : graph.getAllVertices()) {
+            indexOf(name);
+        }
+
+        for (int i = 0; i < graph.vertexCount(); i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                successors.get(i).add(targets[e]);
+                predecessors.get(targets[e]).add(i);
+            }
+        }
+
+        int[] components = NextToYou.StronglyConnectedComponents(offsets, targets);
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] != i) {
+                union(components[i], i);
+            }
+        }
+
+        for (int i = 0; i < graph.vertexCount(); i++) {
+            addBoundary(i);
+        }
+        orderValid = false;
+    }
+
+    /**
+     * Agrega la conexion de from a to, creando los comercios nuevos.
+     *
+     * @param from El comercio de origen.
+     * @param to   El comercio de destino.
+     * @return True si la conexion es nueva.
+     */
+    public boolean connect(String from, String to) {
+        int u = indexOf(from);
+        int v = indexOf(to);
+
+        // El orden se calcula sin la conexion nueva, si no ya la respetaria
+        if (!orderValid) {
+            renumber();
+        }
+
+        if (!successors.get(u).add(v)) {
+            return false;
+        }
+        predecessors.get(v).add(u);
+
+        int cu = find(u);
+        int cv = find(v);
+        if (cu == cv) {
+            return true;
+        }
+
+        long edge = ((long) u << 32) | v;
+        outgoing.get(cu).add(edge);
+        incoming.get(cv).add(edge);
+
+        // El orden ya respeta la conexion
+        if (order[cu] < order[cv]) {
+            return true;
+        }
+
+        // Lo alcanzable desde v y lo que llega a u entre las dos posiciones
+        epoch++;
+        List<Integer> forward = new ArrayList<>();
+        List<Integer> backward = new ArrayList<>();
+        boolean cycle = searchForward(cv, cu, order[cu], forward);
+        searchBack(cu, order[cv], backward);
+
+        // Las posiciones de los visitados se reparten: lo que llega a u toma
+        // las primeras, lo alcanzable desde v las ultimas y el ciclo nuevo una
+        // del medio. Asi lo que llega a u nunca sube y lo alcanzable desde v
+        // nunca baja, y las conexiones con los no visitados se respetan.
+        int[] slots = new int[forward.size() + backward.size()];
+        int count = 0;
+        int forwardOnly = 0;
+        for (int component : forward) {
+            slots[count++] = order[component];
+            if (backwardMark[component] != epoch) {
+                forwardOnly++;
+            }
+        }
+        for (int component : backward) {
+            if (forwardMark[component] != epoch) {
+                slots[count++] = order[component];
+            }
+        }
+        Arrays.sort(slots, 0, count);
+
+        backward.sort((a, b) -> Integer.compare(order[a], order[b]));
+        forward.sort((a, b) -> Integer.compare(order[a], order[b]));
+
+        int slot = 0;
+        for (int component : backward) {
+            if (forwardMark[component] != epoch) {
+                order[component] = slots[slot++];
+            }
+        }
+
+        if (cycle) {
+            // Los visitados en ambas busquedas estan en un camino de v a u
+            int root = cu;
+            for (int component : backward) {
+                if (forwardMark[component] == epoch) {
+                    root = union(root, component);
+                }
+            }
+            order[root] = slots[slot];
+        }
+
+        slot = count - forwardOnly;
+        for (int component : forward) {
+            if (backwardMark[component] != epoch) {
+                order[component] = slots[slot++];
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Quita la conexion de from a to.
+     *
+     * @param from El comercio de origen.
+     * @param to   El comercio de destino.
+     * @return True si la conexion existia.
+     */
+    public boolean disconnect(String from, String to) {
+        Integer u = nameToIndex.get(from);
+        Integer v = nameToIndex.get(to);
+
+        if (u == null || v == null || !successors.get(u).remove(v)) {
+            return false;
+        }
+        predecessors.get(v).remove(u);
+
+        // Quitar una conexion entre componentes distintos no cambia nada
+        int root = find(u);
+        if (root == find(v)) {
+            split(root);
+        }
+
+        return true;
+    }
+
+    /**
+     * Devuelve el componente de un comercio, identificado como en
+     * NextToYou.StronglyConnectedComponents por el menor indice de sus
+     * miembros.
+     *
+     * @param name El comercio.
+     * @return El componente, o -1 si el comercio no existe.
+     */
+    public int component(String name) {
+        Integer index = nameToIndex.get(name);
+        return index == null ? -1 : smallest[find(index)];
+    }
+
+    /**
+     * Devuelve el arreglo de componentes de todos los comercios, con el mismo
+     * formato que NextToYou.StronglyConnectedComponents.
+     *
+     * @return Arreglo que asigna un componente a cada comercio.
+     */
+    public int[] getComponents() {
+        int[] components = new int[names.size()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = smallest[find(i)];
+        }
+        return components;
+    }
+
+    public int getSmallLocalityCount() {
+        return localityCounts[0];
+    }
+
+    public int getMediumLocalityCount() {
+        return localityCounts[1];
+    }
+
+    public int getLargeLocalityCount() {
+        return localityCounts[2];
+    }
+
+    /**
+     * Devuelve el total de deliverys para las localidades actuales.
+     *
+     * @return El total de deliverys.
+     */
+    public int totalDeliverys() {
+        return NextToYou.totalDeliverys(localityCounts[0], localityCounts[1], localityCounts[2]);
+    }
+
+    /**
+     * Devuelve el indice de un comercio, creandolo como componente propio si
+     * es nuevo.
+     */
+    private int indexOf(String name) {
+        Integer index = nameToIndex.get(name);
+
+        if (index != null) {
+            return index;
+        }
+
+        index = names.size();
+        nameToIndex.put(name, index);
+        names.add(name);
+        successors.add(new HashSet<>());
+        predecessors.add(new HashSet<>());
+        outgoing.add(new ArrayList<>());
+        incoming.add(new ArrayList<>());
+
+        if (index == parent.length) {
+            parent = Arrays.copyOf(parent, index * 2);
+            smallest = Arrays.copyOf(smallest, index * 2);
+            order = Arrays.copyOf(order, index * 2);
+            forwardMark = Arrays.copyOf(forwardMark, index * 2);
+            backwardMark = Arrays.copyOf(backwardMark, index * 2);
+        }
+
+        parent[index] = index;
+        smallest[index] = index;
+        order[index] = nextOrder++;
+        List<Integer> component = new ArrayList<>();
+        component.add(index);
+        members.add(component);
+        localityCounts[category(1)]++;
+
+        return index;
+    }
+
+    /**
+     * Recorre los componentes alcanzables desde start que no pasan de la
+     * posicion limit, marcandolos en forwardMark y agregandolos a visited. No
+     * sigue despues de goal: lo que goal alcanza va despues de limit.
+     *
+     * @return True si se llego al componente goal.
+     */
+    private boolean searchForward(int start, int goal, int limit, List<Integer> visited) {
+        List<Integer> stack = new ArrayList<>();
+        stack.add(start);
+        forwardMark[start] = epoch;
+        boolean found = false;
+
+        while (!stack.isEmpty()) {
+            int component = stack.remove(stack.size() - 1);
+            visited.add(component);
+
+            if (component == goal) {
+                found = true;
+                continue;
+            }
+
+            for (long edge : boundary(outgoing, component)) {
+                int root = find((int) edge);
+                if (forwardMark[root] != epoch && order[root] <= limit) {
+                    forwardMark[root] = epoch;
+                    stack.add(root);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Recorre hacia atras los componentes que llegan a start y no estan antes
+     * de la posicion limit, marcandolos en backwardMark y agregandolos a
+     * visited.
+     */
+    private void searchBack(int start, int limit, List<Integer> visited) {
+        List<Integer> stack = new ArrayList<>();
+        stack.add(start);
+        backwardMark[start] = epoch;
+
+        while (!stack.isEmpty()) {
+            int component = stack.remove(stack.size() - 1);
+            visited.add(component);
+
+            for (long edge : boundary(incoming, component)) {
+                int root = find((int) (edge >>> 32));
+                if (backwardMark[root] != epoch && order[root] >= limit) {
+                    backwardMark[root] = epoch;
+                    stack.add(root);
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula de nuevo el orden topologico de todos los componentes, como el
+     * inverso del orden en que termina un DFS sobre ellos.
+     */
+    private void renumber() {
+        epoch++;
+        int position = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (parent[i] == i) {
+                position++;
+            }
+        }
+        nextOrder = position;
+
+        // Pila de componentes y de sus sucesores por recorrer
+        List<Integer> stack = new ArrayList<>();
+        List<List<Integer>> pendingStack = new ArrayList<>();
+
+        for (int start = 0; start < names.size(); start++) {
+            if (parent[start] != start || forwardMark[start] == epoch) {
+                continue;
+            }
+
+            forwardMark[start] = epoch;
+            stack.add(start);
+            pendingStack.add(successorComponents(start));
+
+            while (!stack.isEmpty()) {
+                List<Integer> pending = pendingStack.get(pendingStack.size() - 1);
+
+                if (pending.isEmpty()) {
+                    order[stack.remove(stack.size() - 1)] = --position;
+                    pendingStack.remove(pendingStack.size() - 1);
+                    continue;
+                }
+
+                int next = pending.remove(pending.size() - 1);
+                if (forwardMark[next] != epoch) {
+                    forwardMark[next] = epoch;
+                    stack.add(next);
+                    pendingStack.add(successorComponents(next));
+                }
+            }
+        }
+
+        orderValid = true;
+    }
+
+    /**
+     * Devuelve las raices de los componentes a los que llega un componente,
+     * puede tener repetidos.
+     */
+    private List<Integer> successorComponents(int component) {
+        List<Integer> result = new ArrayList<>();
+        for (long edge : boundary(outgoing, component)) {
+            result.add(find((int) edge));
+        }
+        return result;
+    }
+
+    /**
+     * Devuelve las conexiones de un componente en lists, sacando antes las
+     * que ya no existen o quedaron dentro del componente.
+     */
+    private List<Long> boundary(List<List<Long>> lists, int component) {
+        List<Long> edges = lists.get(component);
+        int live = 0;
+
+        for (int i = 0; i < edges.size(); i++) {
+            long edge = edges.get(i);
+            int from = (int) (edge >>> 32);
+            int to = (int) edge;
+
+            if (find(from) != find(to) && successors.get(from).contains(to)) {
+                edges.set(live++, edge);
+            }
+        }
+
+        edges.subList(live, edges.size()).clear();
+        return edges;
+    }
+
+    /**
+     * Agrega las conexiones de un nodo con otros componentes a las listas de
+     * su componente.
+     */
+    private void addBoundary(int vertex) {
+        int root = find(vertex);
+
+        for (int next : successors.get(vertex)) {
+            if (find(next) != root) {
+                outgoing.get(root).add(((long) vertex << 32) | next);
+            }
+        }
+        for (int previous : predecessors.get(vertex)) {
+            if (find(previous) != root) {
+                incoming.get(root).add(((long) previous << 32) | vertex);
+            }
+        }
+    }
+
+    /**
+     * Vuelve a calcular los componentes de los miembros de root despues de
+     * quitar una conexion interna.
+     */
+    private void split(int root) {
+        List<Integer> component = members.get(root);
+        int size = component.size();
+
+        // CSR local de las conexiones dentro del componente
+        Map<Integer, Integer> local = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            local.put(component.get(i), i);
+        }
+
+        int[] offsets = new int[size + 1];
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (int next : successors.get(component.get(i))) {
+                Integer j = local.get(next);
+                if (j != null) {
+                    targets.add(j);
+                }
+            }
+            offsets[i + 1] = targets.size();
+        }
+
+        int[] localTargets = new int[targets.size()];
+        for (int e = 0; e < localTargets.length; e++) {
+            localTargets[e] = targets.get(e);
+        }
+
+        int[] labels = NextToYou.StronglyConnectedComponents(offsets, localTargets);
+
+        // Sigue siendo un solo componente
+        boolean connected = true;
+        for (int label : labels) {
+            connected &= label == 0;
+        }
+        if (connected) {
+            return;
+        }
+
+        // Deshace el componente y vuelve a unir cada parte. Ningun nodo de
+        // afuera apunta a estos en el union-find.
+        orderValid = false;
+        localityCounts[category(size)]--;
+        for (int member : component) {
+            parent[member] = member;
+            smallest[member] = member;
+            List<Integer> single = new ArrayList<>();
+            single.add(member);
+            members.set(member, single);
+            outgoing.set(member, new ArrayList<>());
+            incoming.set(member, new ArrayList<>());
+            localityCounts[category(1)]++;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (labels[i] != i) {
+                union(component.get(labels[i]), component.get(i));
+            }
+        }
+
+        // Las conexiones entre las partes ahora van entre componentes. Las
+        // listas de los componentes de afuera siguen sirviendo.
+        for (int member : component) {
+            addBoundary(member);
+        }
+    }
+
+    private int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+
+        // Compresion de caminos
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+
+        return root;
+    }
+
+    /**
+     * Une los componentes de a y b, pasando los miembros del menor al mayor y
+     * actualizando los contadores de localidades.
+     *
+     * @return La raiz del componente unido.
+     */
+    private int union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return ra;
+        }
+
+        if (members.get(ra).size() < members.get(rb).size()) {
+            int swap = ra;
+            ra = rb;
+            rb = swap;
+        }
+
+        List<Integer> big = members.get(ra);
+        List<Integer> small = members.get(rb);
+
+        localityCounts[category(big.size())]--;
+        localityCounts[category(small.size())]--;
+
+        big.addAll(small);
+        members.set(rb, null);
+        outgoing.set(ra, merge(outgoing.get(ra), outgoing.get(rb)));
+        incoming.set(ra, merge(incoming.get(ra), incoming.get(rb)));
+        outgoing.set(rb, null);
+        incoming.set(rb, null);
+        parent[rb] = ra;
+        smallest[ra] = Math.min(smallest[ra], smallest[rb]);
+
+        localityCounts[category(big.size())]++;
+
+        return ra;
+    }
+
+    /**
+     * Junta dos listas de conexiones pasando la menor a la mayor.
+     */
+    private static List<Long> merge(List<Long> a, List<Long> b) {
+        if (a.size() < b.size()) {
+            b.addAll(a);
+            return b;
+        }
+        a.addAll(b);
+        return a;
+    }
+
+    /**
+     * Clasifica una localidad segun su cantidad de comercios: 0 pequena (hasta
+     * 2), 1 mediana (hasta 5) y 2 grande.
+     */
+    private static int category(int size) {
+        if (size <= 2) {
+            return 0;
+        } else if (size <= 5) {
+            return 1;
+        }
+        return 2;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        IncrementalScc localities = new IncrementalScc(NextToYou.readGraph("Caracas.txt"));
+        System.out.println(localities.totalDeliverys());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            int comma = line.indexOf(',');
+            if (line.length() < 2 || comma == -1) {
+                continue;
+            }
+
+            String source = line.substring(1, comma).trim();
+            int end = line.indexOf(',', comma + 1);
+            if (end == -1) {
+                end = line.length();
+            }
+            String destination = line.substring(comma + 1, end).trim();
+
+            if (line.charAt(0) == '+') {
+                localities.connect(source, destination);
+            } else if (line.charAt(0) == '-') {
+                localities.disconnect(source, destination);
+            } else {
+                continue;
+            }
+
+            System.out.println(localities.totalDeliverys());
+        }
+    }
+}
@@ -1,37 +1,34 @@
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
 
-public class NextToYou {
-    public static void main(String[] args) throws FileNotFoundException {
-
-        ArrayList<String> lines = readFile("Caracas.txt");
-
-        // Leemos las lineas del archivo
-        Map<String, Integer> nameToIndex = createNameToIndexMap(lines);
-
-        // Obtenemos la cantidad de ciudades e inicializamos el grafo
-        int n = nameToIndex.size();
-        int[][] graph = new int[n][n];
-
-        // Recorre los datos para crear el grafo
-        for (String line : lines) {
+//Correr de la siguiente forma: javac *.java && java NextToYou [--paralelo]
+//Con --paralelo los componentes se calculan con ParallelScc en todos los nucleos,
+//salvo que haya uno solo, donde Tarjan secuencial es mas rapido.
 
-            String[] parts = line.split(",");
-            String source = parts[0].trim();
-            String destination = parts[1].trim();
-            int sourceIndex = nameToIndex.get(source);
-            int destinationIndex = nameToIndex.get(destination);
+public class NextToYou {
+    public static void main(String[] args) throws IOException {
 
-            graph[sourceIndex][destinationIndex] = 1;
-        }
+        // Leemos el archivo directo a listas de sucesores, sin matriz de n x n
+        CsrGraph<String> graph = readGraph("Caracas.txt");
 
         // Encontramos los SCC e inizialimos variales para contar la cantidad de
         // localidades
-        int[] components = StronglyConnectedComponents(graph);
+        int[] components;
+        if (args.length > 0 && args[0].equals("--paralelo")) {
+            components = ParallelStronglyConnectedComponents(graph.getOffsets(), graph.getTargets(),
+                    ForkJoinPool.commonPool());
+        } else {
+            components = StronglyConnectedComponents(graph.getOffsets(), graph.getTargets());
+        }
         int smallLocalityCount = 0;
         int mediumLocalityCount = 0;
         int largeLocalityCount = 0;
@@ -52,66 +49,107 @@ public class NextToYou {
         }
 
         // Calculamos el numero de deliverys necesarios
-        int totalDeliverys = smallLocalityCount * 10 + mediumLocalityCount * 20 + largeLocalityCount * 30;
+        int totalDeliverys = totalDeliverys(smallLocalityCount, mediumLocalityCount, largeLocalityCount);
         System.out.println(totalDeliverys);
 
     }
 
     /**
-     * Funcion encargada de leer el archivo y guardar los datos en un array para
+     * Calcula el numero de deliverys necesarios segun la cantidad de
+     * localidades de cada tamano.
+     *
+     * @param small  Localidades de hasta 2 comercios.
+     * @param medium Localidades de 3 a 5 comercios.
+     * @param large  Localidades de mas de 5 comercios.
+     * @return El total de deliverys.
+     */
+    public static int totalDeliverys(int small, int medium, int large) {
+        return small * 10 + medium * 20 + large * 30;
+    }
+
+    /**
+     * Funcion encargada de leer el archivo de conexiones y construir el grafo
+     * en una sola pasada. Cada comercio recibe un indice la primera vez que
+     * aparece y cada linea "origen, destino" se guarda como un par de indices;
+     * al final se arman las listas de sucesores (CSR), asi la memoria crece
+     * con la cantidad de conexiones y no con n al cuadrado. Las lineas sin
+     * coma se ignoran, al igual que lo que sigue a una segunda coma.
      * 
      * @param filename Nombre del archivo a leer.
-     * @return Lista con los datos contenido dentro del archivo.
+     * @return El grafo dirigido de conexiones entre comercios.
      */
-    public static ArrayList<String> readFile(String filename) throws FileNotFoundException {
-        ArrayList<String> lines = new ArrayList<>();
+    public static CsrGraph<String> readGraph(String filename) throws IOException {
+        Map<String, Integer> nameToIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] sources = new int[16];
+        int[] destinations = new int[16];
+        int edges = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(filename), StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma == -1) {
+                    continue;
+                }
+
+                if (edges == sources.length) {
+                    sources = Arrays.copyOf(sources, edges * 2);
+                    destinations = Arrays.copyOf(destinations, edges * 2);
+                }
 
-        File myObj = new File(filename);
-        Scanner myReader = new Scanner(myObj);
+                // Como split(","), el destino termina en la siguiente coma
+                int end = line.indexOf(',', comma + 1);
+                if (end == -1) {
+                    end = line.length();
+                }
 
-        while (myReader.hasNextLine()) {
-            String data = myReader.nextLine();
-            lines.add(data);
+                sources[edges] = indexOf(line.substring(0, comma).trim(), nameToIndex, names);
+                destinations[edges] = indexOf(line.substring(comma + 1, end).trim(), nameToIndex, names);
+                edges++;
+            }
+        }
+
+        // Ordenamiento por conteo de las conexiones segun su origen
+        int n = names.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < edges; e++) {
+            offsets[sources[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
         }
 
-        myReader.close();
+        int[] position = Arrays.copyOf(offsets, n);
+        int[] targets = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            targets[position[sources[e]]++] = destinations[e];
+        }
 
-        return lines;
+        return new CsrGraph<>(names, nameToIndex, offsets, targets, false);
     }
 
     /**
-     * Funcion encargada de mapear las conexciones de la cuidades
-     * para saber cuandos nodos van a haber
-     * 
-     * @param lines String con los lines del archivo.
-     * @return hashmap con el mapeado ya hecho de cada nodo con un indice.
+     * Devuelve el indice de un comercio, asignandole el siguiente si es nuevo.
      */
-    public static Map<String, Integer> createNameToIndexMap(ArrayList<String> lines) {
-        Map<String, Integer> nameToIndex = new HashMap<>();
-        int index = 0;
-
-        for (String line : lines) {
-            String[] parts = line.split(",");
-            String source = parts[0].trim();
-            String destination = parts[1].trim();
+    private static int indexOf(String name, Map<String, Integer> nameToIndex, List<String> names) {
+        Integer index = nameToIndex.get(name);
 
-            if (!nameToIndex.containsKey(source)) {
-                nameToIndex.put(source, index);
-                index++;
-            }
-
-            if (!nameToIndex.containsKey(destination)) {
-                nameToIndex.put(destination, index);
-                index++;
-            }
+        if (index == null) {
+            index = names.size();
+            nameToIndex.put(name, index);
+            names.add(name);
         }
 
-        return nameToIndex;
+        return index;
     }
 
     /**
      * Aplica el algoritmo de RoyWarshall para determinar la conectividad entre
-     * nodos del grafo.
+     * nodos del grafo. Las filas se calculan con bits en ReachabilityMatrix;
+     * quien no necesite la matriz completa puede usar esa clase directamente,
+     * que ocupa 64 veces menos memoria.
      * 
      * @param graph Matriz que representa el grafo.
      * @return Una matriz booleana donde el valor en la posición i,j indica si hay
@@ -119,67 +157,168 @@ public class NextToYou {
      */
     public static boolean[][] RoyWarshall(int[][] graph) {
 
-        int n = graph[0].length;
-        boolean[][] reachable = new boolean[n][n];
+        int[][] csr = toCsr(graph);
+        return ReachabilityMatrix.closure(csr[0], csr[1], ForkJoinPool.commonPool()).toBooleanMatrix();
+    }
+
+    /**
+     * Encuentra los componentes fuertemente conectados del grafo
+     * 
+     * @param graph Matriz que representa el grafo.
+     * @return Arreglo de enteros que asigna un componente a cada nodo del grafo.
+     */
+    public static int[] StronglyConnectedComponents(int[][] graph) {
+
+        int[][] csr = toCsr(graph);
+        return StronglyConnectedComponents(csr[0], csr[1]);
+    }
+
+    /**
+     * Pasa la matriz de adyacencia a listas de sucesores contiguas (CSR).
+     * 
+     * @param graph Matriz que representa el grafo.
+     * @return Los arreglos offsets y targets del CSR.
+     */
+    private static int[][] toCsr(int[][] graph) {
+
+        int n = graph.length;
+        int[] offsets = new int[n + 1];
 
         for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i];
             for (int j = 0; j < n; j++) {
-                if (i == j || graph[i][j] != 0) {
-                    reachable[i][j] = true;
+                if (graph[i][j] != 0) {
+                    offsets[i + 1]++;
                 }
             }
         }
 
-        for (int k = 0; k < n; k++) {
-            for (int i = 0; i < n; i++) {
-
-                if (i == k || !reachable[i][k]) {
-                    continue;
-                }
-
-                for (int j = 0; j < n; j++) {
-                    reachable[i][j] = reachable[i][j] || reachable[k][j];
+        int[] targets = new int[offsets[n]];
+        for (int i = 0, e = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (graph[i][j] != 0) {
+                    targets[e++] = j;
                 }
-
             }
         }
-        return reachable;
+
+        return new int[][] { offsets, targets };
     }
 
     /**
-     * Encuentra los componentes fuertemente conectados del grafo
+     * Encuentra los componentes fuertemente conectados con el algoritmo de
+     * Tarjan en tiempo O(V + E). La recursion se simula con pilas explicitas,
+     * asi un camino muy largo no desborda la pila de llamadas.
      * 
-     * @param graph Matriz que representa el grafo.
+     * Cada nodo recibe como componente el menor indice de su componente, el
+     * mismo valor que asignaba la version con RoyWarshall.
+     * 
+     * @param offsets Los sucesores del nodo i son targets[offsets[i]] ..
+     *                targets[offsets[i + 1] - 1].
+     * @param targets Indices de los sucesores de cada nodo.
      * @return Arreglo de enteros que asigna un componente a cada nodo del grafo.
      */
-    public static int[] StronglyConnectedComponents(int[][] graph) {
+    public static int[] StronglyConnectedComponents(int[] offsets, int[] targets) {
 
-        boolean[][] reachable = RoyWarshall(graph);
-        int n = graph[0].length;
+        int n = offsets.length - 1;
         int[] components = new int[n];
+        int[] order = new int[n];
+        int[] lowlink = new int[n];
+        boolean[] onStack = new boolean[n];
+
+        // Pila de nodos sin componente y pila de llamadas con la siguiente
+        // arista a revisar de cada nodo
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        int depth = 0;
+        int counter = 0;
 
         for (int i = 0; i < n; i++) {
-            components[i] = -1;
+            order[i] = -1;
         }
 
-        for (int v = 0; v < n; v++) {
+        for (int root = 0; root < n; root++) {
 
-            if (components[v] != -1) {
+            if (order[root] != -1) {
                 continue;
             }
 
-            components[v] = v;
+            order[root] = lowlink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            nextEdge[root] = offsets[root];
+            callStack[depth++] = root;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+
+                if (nextEdge[v] < offsets[v + 1]) {
+                    int w = targets[nextEdge[v]++];
+
+                    if (order[w] == -1) {
+                        // Equivale a la llamada recursiva sobre w
+                        order[w] = lowlink[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        nextEdge[w] = offsets[w];
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        lowlink[v] = Math.min(lowlink[v], order[w]);
+                    }
+                    continue;
+                }
+
+                // Se terminaron los sucesores de v: regresa de la llamada
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+                }
 
-            for (int w = 0; w < n; w++) {
-                if (reachable[v][w] && reachable[w][v]) {
-                    components[w] = v;
+                if (lowlink[v] != order[v]) {
+                    continue;
                 }
-            }
 
+                // v es la raiz de un componente: lo sacamos de la pila
+                int top = stackSize;
+                int smallest = v;
+                int w;
+                do {
+                    w = stack[--stackSize];
+                    onStack[w] = false;
+                    smallest = Math.min(smallest, w);
+                } while (w != v);
+
+                for (int i = stackSize; i < top; i++) {
+                    components[stack[i]] = smallest;
+                }
+            }
         }
+
         return components;
     }
 
+    /**
+     * Calcula los componentes fuertemente conectados repartiendo el trabajo
+     * en un ForkJoinPool (ver ParallelScc). El resultado es identico al de
+     * StronglyConnectedComponents. Con un solo hilo ParallelScc es mas lento
+     * que Tarjan, asi que en ese caso se usa StronglyConnectedComponents.
+     * 
+     * @param offsets Los sucesores del nodo i son targets[offsets[i]] ..
+     *                targets[offsets[i + 1] - 1].
+     * @param targets Indices de los sucesores de cada nodo.
+     * @param pool    Hilos en los que se reparte el trabajo.
+     * @return Arreglo de enteros que asigna un componente a cada nodo del grafo.
+     */
+    public static int[] ParallelStronglyConnectedComponents(int[] offsets, int[] targets, ForkJoinPool pool) {
+        if (pool.getParallelism() <= 1) {
+            return StronglyConnectedComponents(offsets, targets);
+        }
+        return ParallelScc.components(offsets, targets, pool);
+    }
+
     /**
      * Cuenta el tamaño de cada componente fuertemente conectado en un grafo.
      * 
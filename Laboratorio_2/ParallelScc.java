@@ -0,0 +1,600 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Componentes fuertemente conectados en paralelo sobre un ForkJoinPool.
+ *
+ * Se hace en cuatro etapas, cada una repartida por rangos de nodos:
+ *
+ * - Poda: un nodo sin entradas o sin salidas hacia nodos pendientes es un
+ *   componente de un solo nodo. Se repiten pasadas mientras sigan quitando
+ *   una parte apreciable de los pendientes.
+ * - Adelante-atras: desde el nodo con mas entradas por salidas se recorre
+ *   hacia adelante y hacia atras con BFS paralelos; lo alcanzado en ambos es
+ *   su componente, que en grafos reales suele ser el gigante.
+ * - Una segunda poda sobre lo que queda.
+ * - Los nodos restantes se agrupan en componentes debilmente conectados con
+ *   un union-find concurrente, y cada grupo se resuelve con Tarjan en una
+ *   tarea propia: ningun ciclo cruza de un grupo a otro.
+ *
+ * Cada componente se identifica por el menor indice de sus nodos, como en
+ * NextToYou.StronglyConnectedComponents. Como los componentes no dependen
+ * del orden en que trabajan los hilos, el resultado es siempre el mismo que
+ * el secuencial.
+ */
+public class ParallelScc {
+
+    // Nodos por debajo de los cuales una tarea ya no se divide.
+    private static final int GRAIN = 1024;
+
+    // La poda se repite mientras cada pasada quite al menos 1 / TRIM_RATIO de
+    // los pendientes.
+    private static final int TRIM_RATIO = 100;
+
+    // Estados de un nodo pendiente en components durante adelante-atras.
+    private static final int PENDING = -1;
+    private static final int FORWARD = -2;
+    private static final int BOTH = -3;
+
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private ForkJoinPool pool;
+    private int vertexCount;
+
+    private int[] offsets;
+    private int[] targets;
+    private int[] reverseOffsets;
+    private int[] reverseTargets;
+
+    // Componente de cada nodo, o un valor negativo mientras esta pendiente.
+    private int[] components;
+
+    // Cantidad de nodos pendientes.
+    private int pendingCount;
+
+    // Frontera de la poda o del BFS en curso.
+    private int[] frontier;
+    private int[] next;
+    private int frontierSize;
+    private AtomicInteger nextSize = new AtomicInteger();
+
+    private ParallelScc(int[] offsets, int[] targets, ForkJoinPool pool) {
+        this.pool = pool;
+        this.offsets = offsets;
+        this.targets = targets;
+        vertexCount = offsets.length - 1;
+
+        components = new int[vertexCount];
+        Arrays.fill(components, PENDING);
+        pendingCount = vertexCount;
+        frontier = new int[vertexCount];
+        next = new int[vertexCount];
+    }
+
+    /**
+     * Calcula los componentes fuertemente conectados de un grafo.
+     *
+     * @param offsets Los sucesores del nodo i son targets[offsets[i]] ..
+     *                targets[offsets[i + 1] - 1].
+     * @param targets Indices de los sucesores de cada nodo.
+     * @param pool    Hilos en los que se reparte el trabajo.
+     * @return Arreglo de enteros que asigna un componente a cada nodo del
+     *         grafo, igual al de NextToYou.StronglyConnectedComponents.
+     */
+    public static int[] components(int[] offsets, int[] targets, ForkJoinPool pool) {
+        ParallelScc scc = new ParallelScc(offsets, targets, pool);
+
+        scc.reverse();
+        scc.trim();
+        scc.forwardBackward();
+        scc.trim();
+        scc.weaklyConnected();
+
+        return scc.components;
+    }
+
+    /**
+     * Parte de un cuerpo que recorre los indices [from, to).
+     */
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    /**
+     * Divide [from, to) en tareas de a lo sumo grain indices.
+     */
+    @SuppressWarnings("serial")
+    private static class RangeStep extends RecursiveAction {
+
+        private Range body;
+        private int from;
+        private int to;
+        private int grain;
+
+        RangeStep(Range body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeStep(body, from, middle, grain), new RangeStep(body, middle, to, grain));
+                return;
+            }
+            body.run(from, to);
+        }
+    }
+
+    /**
+     * Ejecuta body sobre [0, size) en el pool, o en el hilo actual si es tan
+     * pequeno que no se va a dividir.
+     */
+    private void forEach(int size, Range body) {
+        if (size <= GRAIN) {
+            body.run(0, size);
+        } else {
+            pool.invoke(new RangeStep(body, 0, size, GRAIN));
+        }
+    }
+
+    /**
+     * Construye las listas de predecesores sin operaciones atomicas: los
+     * nodos se reparten en bloques de origen y rangos de destino. Cada bloque
+     * copia sus aristas agrupadas por rango en un lugar reservado solo para
+     * el, y luego cada rango se ordena por destino por separado. Cada lista
+     * queda ordenada por origen.
+     */
+    private void reverse() {
+        int parts = Math.max(1, Math.min(pool.getParallelism() * 4, vertexCount / GRAIN));
+        int partSize = (vertexCount + parts - 1) / parts;
+        int m = targets.length;
+
+        // Aristas de cada bloque hacia cada rango
+        int[] start = new int[parts * parts];
+        forEachPart(parts, part -> {
+            int base = part * parts;
+            int begin = Math.min(vertexCount, part * partSize);
+            int end = Math.min(vertexCount, begin + partSize);
+            for (int e = offsets[begin]; e < offsets[end]; e++) {
+                start[base + targets[e] / partSize]++;
+            }
+        });
+
+        // Se ubican por rango y, dentro de cada rango, por bloque
+        int[] rangeStart = new int[parts + 1];
+        int total = 0;
+        for (int range = 0; range < parts; range++) {
+            rangeStart[range] = total;
+            for (int part = 0; part < parts; part++) {
+                int count = start[part * parts + range];
+                start[part * parts + range] = total;
+                total += count;
+            }
+        }
+        rangeStart[parts] = total;
+
+        int[] edgeSources = new int[m];
+        int[] edgeTargets = new int[m];
+        forEachPart(parts, part -> {
+            int base = part * parts;
+            int begin = Math.min(vertexCount, part * partSize);
+            int end = Math.min(vertexCount, begin + partSize);
+            for (int v = begin; v < end; v++) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int position = start[base + targets[e] / partSize]++;
+                    edgeSources[position] = v;
+                    edgeTargets[position] = targets[e];
+                }
+            }
+        });
+
+        // Cada rango ocupa el mismo lugar en las listas de predecesores
+        reverseOffsets = new int[vertexCount + 1];
+        reverseTargets = new int[m];
+        forEachPart(parts, range -> {
+            int low = range * partSize;
+            int high = Math.min(vertexCount, low + partSize);
+            int[] position = new int[Math.max(0, high - low)];
+
+            for (int e = rangeStart[range]; e < rangeStart[range + 1]; e++) {
+                position[edgeTargets[e] - low]++;
+            }
+
+            int offset = rangeStart[range];
+            for (int t = low; t < high; t++) {
+                int count = position[t - low];
+                position[t - low] = offset;
+                offset += count;
+                reverseOffsets[t + 1] = offset;
+            }
+
+            for (int e = rangeStart[range]; e < rangeStart[range + 1]; e++) {
+                reverseTargets[position[edgeTargets[e] - low]++] = edgeSources[e];
+            }
+        });
+    }
+
+    /**
+     * Ejecuta body una vez por cada parte en [0, parts).
+     */
+    private void forEachPart(int parts, IntConsumer body) {
+        Range range = (from, to) -> {
+            for (int part = from; part < to; part++) {
+                body.accept(part);
+            }
+        };
+
+        if (parts == 1) {
+            range.run(0, 1);
+        } else {
+            pool.invoke(new RangeStep(range, 0, parts, 1));
+        }
+    }
+
+    /**
+     * Poda los nodos pendientes que no tienen entradas o salidas hacia otros
+     * pendientes, asignando a cada uno su propio componente. Cada pasada solo
+     * lee a los vecinos; un nodo podado durante la pasada sigue sin entradas
+     * o sin salidas, asi que los hilos pueden ver la marca antes o despues.
+     * Se repite mientras cada pasada pode al menos 1 / TRIM_RATIO de los
+     * pendientes: lo que quede lo resuelve Tarjan.
+     */
+    private void trim() {
+        AtomicInteger removed = new AtomicInteger();
+
+        do {
+            removed.set(0);
+            forEach(vertexCount, (from, to) -> {
+                int count = 0;
+
+                for (int v = from; v < to; v++) {
+                    if (components[v] == PENDING && (!hasPendingNeighbor(v, offsets, targets)
+                            || !hasPendingNeighbor(v, reverseOffsets, reverseTargets))) {
+                        components[v] = v;
+                        count++;
+                    }
+                }
+
+                removed.addAndGet(count);
+            });
+
+            pendingCount -= removed.get();
+        } while (removed.get() > 0 && removed.get() >= pendingCount / TRIM_RATIO);
+    }
+
+    /**
+     * Devuelve True si v tiene alguna conexion hacia otro nodo pendiente.
+     */
+    private boolean hasPendingNeighbor(int v, int[] edgeOffsets, int[] edgeTargets) {
+        for (int e = edgeOffsets[v]; e < edgeOffsets[v + 1]; e++) {
+            int w = edgeTargets[e];
+            if (w != v && components[w] == PENDING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encuentra el componente del nodo pendiente con mas entradas por salidas,
+     * como la interseccion de lo que alcanza y de lo que llega a el.
+     */
+    private void forwardBackward() {
+        AtomicLong best = new AtomicLong(-1);
+
+        forEach(vertexCount, (from, to) -> {
+            long local = -1;
+
+            for (int v = from; v < to; v++) {
+                if (components[v] == PENDING) {
+                    // Mayor puntaje primero y luego menor indice
+                    long in = reverseOffsets[v + 1] - reverseOffsets[v];
+                    long out = offsets[v + 1] - offsets[v];
+                    long score = Math.min(in * out, Integer.MAX_VALUE);
+                    local = Math.max(local, score << 32 | (Integer.MAX_VALUE - v));
+                }
+            }
+
+            long candidate = local;
+            best.accumulateAndGet(candidate, Math::max);
+        });
+
+        if (best.get() == -1) {
+            return;
+        }
+
+        // Todo camino hacia el pivote desde un nodo que el pivote alcanza
+        // pasa solo por nodos que el pivote alcanza, asi que la busqueda hacia
+        // atras se limita a esos y encuentra exactamente el componente
+        int pivot = Integer.MAX_VALUE - (int) best.get();
+        reach(pivot, offsets, targets, PENDING, FORWARD);
+        reach(pivot, reverseOffsets, reverseTargets, FORWARD, BOTH);
+
+        AtomicInteger smallest = new AtomicInteger(pivot);
+        forEach(vertexCount, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (components[v] == BOTH) {
+                    smallest.accumulateAndGet(v, Math::min);
+                    break;
+                }
+            }
+        });
+
+        // Lo alcanzado solo hacia adelante vuelve a quedar pendiente
+        int label = smallest.get();
+        AtomicInteger size = new AtomicInteger();
+        forEach(vertexCount, (from, to) -> {
+            int count = 0;
+            for (int v = from; v < to; v++) {
+                if (components[v] == BOTH) {
+                    components[v] = label;
+                    count++;
+                } else if (components[v] == FORWARD) {
+                    components[v] = PENDING;
+                }
+            }
+            size.addAndGet(count);
+        });
+
+        pendingCount -= size.get();
+    }
+
+    /**
+     * BFS paralelo por niveles desde source que solo entra en los nodos con
+     * componente from y los pasa a to.
+     */
+    private void reach(int source, int[] edgeOffsets, int[] edgeTargets, int from, int to) {
+        components[source] = to;
+        frontier[0] = source;
+        frontierSize = 1;
+
+        while (frontierSize > 0) {
+            nextSize.set(0);
+            forEach(frontierSize, (low, high) -> {
+                int[] found = new int[64];
+                int count = 0;
+
+                for (int i = low; i < high; i++) {
+                    int v = frontier[i];
+
+                    for (int e = edgeOffsets[v]; e < edgeOffsets[v + 1]; e++) {
+                        int w = edgeTargets[e];
+                        if (components[w] == from && INT.compareAndSet(components, w, from, to)) {
+                            found = append(found, count++, w);
+                        }
+                    }
+                }
+
+                publish(found, count);
+            });
+            swap();
+        }
+    }
+
+    /**
+     * Agrupa los nodos pendientes en componentes debilmente conectados y
+     * resuelve cada grupo con Tarjan en paralelo.
+     */
+    private void weaklyConnected() {
+        // Union-find concurrente: la raiz de cada grupo es su menor nodo
+        int[] parent = new int[vertexCount];
+        forEach(vertexCount, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                parent[v] = components[v] == PENDING ? v : -1;
+            }
+        });
+
+        forEach(vertexCount, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (parent[v] == -1) {
+                    continue;
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    if (parent[targets[e]] != -1) {
+                        union(parent, v, targets[e]);
+                    }
+                }
+            }
+        });
+
+        // Cada nodo apunta directo a su raiz y se cuentan los miembros
+        int[] sizes = new int[vertexCount + 1];
+        forEach(vertexCount, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (parent[v] != -1) {
+                    int root = find(parent, v);
+                    parent[v] = root;
+                    INT.getAndAdd(sizes, root + 1, 1);
+                }
+            }
+        });
+
+        int groupCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            if (sizes[v + 1] > 0) {
+                groupCount++;
+            }
+            sizes[v + 1] += sizes[v];
+        }
+        if (groupCount == 0) {
+            return;
+        }
+
+        int[] roots = new int[groupCount];
+        groupCount = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            if (sizes[v + 1] > sizes[v]) {
+                roots[groupCount++] = v;
+            }
+        }
+
+        // Miembros de cada grupo, contiguos desde sizes[raiz]
+        int[] members = new int[sizes[vertexCount]];
+        int[] position = Arrays.copyOf(sizes, vertexCount);
+        forEach(vertexCount, (from, to) -> {
+            for (int v = from; v < to; v++) {
+                if (parent[v] != -1) {
+                    members[(int) INT.getAndAdd(position, parent[v], 1)] = v;
+                }
+            }
+        });
+
+        // Los grupos no comparten nodos, asi que comparten estos arreglos
+        int[] order = new int[vertexCount];
+        int[] lowlink = new int[vertexCount];
+        int[] nextEdge = new int[vertexCount];
+        boolean[] onStack = new boolean[vertexCount];
+
+        forEach(groupCount, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int root = roots[i];
+                tarjan(members, sizes[root], sizes[root + 1], parent, order, lowlink, nextEdge, onStack);
+            }
+        });
+    }
+
+    /**
+     * Tarjan iterativo sobre los nodos members[from .. to - 1], siguiendo solo
+     * conexiones dentro del mismo grupo.
+     */
+    private void tarjan(int[] members, int from, int to, int[] group, int[] order, int[] lowlink, int[] nextEdge,
+            boolean[] onStack) {
+        int size = to - from;
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int[] callStack = new int[size];
+        int depth = 0;
+        int counter = 1;
+
+        for (int i = from; i < to; i++) {
+            int root = members[i];
+
+            if (order[root] != 0) {
+                continue;
+            }
+
+            order[root] = lowlink[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            nextEdge[root] = offsets[root];
+            callStack[depth++] = root;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+
+                if (nextEdge[v] < offsets[v + 1]) {
+                    int w = targets[nextEdge[v]++];
+
+                    if (group[w] != group[v]) {
+                        continue;
+                    }
+
+                    if (order[w] == 0) {
+                        order[w] = lowlink[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        nextEdge[w] = offsets[w];
+                        callStack[depth++] = w;
+                    } else if (onStack[w]) {
+                        lowlink[v] = Math.min(lowlink[v], order[w]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int caller = callStack[depth - 1];
+                    lowlink[caller] = Math.min(lowlink[caller], lowlink[v]);
+                }
+
+                if (lowlink[v] != order[v]) {
+                    continue;
+                }
+
+                int top = stackSize;
+                int smallest = v;
+                int w;
+                do {
+                    w = stack[--stackSize];
+                    onStack[w] = false;
+                    smallest = Math.min(smallest, w);
+                } while (w != v);
+
+                for (int k = stackSize; k < top; k++) {
+                    components[stack[k]] = smallest;
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca la raiz de x acortando el camino a la mitad. Las escrituras solo
+     * acercan un nodo a un ancestro, asi que otros hilos pueden leerlas en
+     * cualquier momento.
+     */
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            int grandparent = parent[parent[x]];
+            parent[x] = grandparent;
+            x = grandparent;
+        }
+        return x;
+    }
+
+    /**
+     * Une los grupos de a y b colgando la raiz mayor de la menor. El CAS
+     * falla si otro hilo ya colgo esa raiz, y entonces se vuelve a intentar.
+     */
+    private static void union(int[] parent, int a, int b) {
+        while (true) {
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+
+            if (ra == rb) {
+                return;
+            }
+            if (ra < rb) {
+                int swap = ra;
+                ra = rb;
+                rb = swap;
+            }
+            if (INT.compareAndSet(parent, ra, ra, rb)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copia los nodos encontrados por una tarea al final de next, reservando
+     * el espacio de una vez.
+     */
+    private void publish(int[] found, int count) {
+        if (count > 0) {
+            System.arraycopy(found, 0, next, nextSize.getAndAdd(count), count);
+        }
+    }
+
+    private static int[] append(int[] values, int size, int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        return values;
+    }
+
+    private void swap() {
+        int[] swap = frontier;
+        frontier = next;
+        next = swap;
+        frontierSize = nextSize.get();
+    }
+}
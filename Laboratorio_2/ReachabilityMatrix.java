@@ -0,0 +1,353 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matriz de alcanzabilidad (clausura transitiva) guardada por bits.
+ *
+ * Cada fila es un long[] con un bit por columna, asi ocupa 64 veces menos que
+ * un boolean[][] y unir dos filas es un OR de 64 columnas por operacion. Se
+ * puede calcular de dos formas:
+ *
+ * - closure: RoyWarshall sobre los bits, repartiendo entre los hilos de un
+ *   ForkJoinPool las filas de cada paso k.
+ * - condensedClosure: la clausura del grafo de componentes fuertemente
+ *   conectados, que es aciclico. Cada componente une las filas de sus
+ *   sucesores, procesando por niveles desde los sumideros; todos los nodos de
+ *   un componente comparten la fila, asi que la matriz tiene una fila por
+ *   componente y no por nodo.
+ *
+ * En ambos casos cada nodo se alcanza a si mismo.
+ */
+public class ReachabilityMatrix {
+
+    // Filas por debajo de las cuales una tarea ya no se divide.
+    private static final int GRAIN = 64;
+
+    private int size;
+
+    // Fila y columna de cada nodo: el mismo nodo, o su componente.
+    private int[] indexOf;
+    private long[][] rows;
+
+    private ReachabilityMatrix(int size, int[] indexOf, long[][] rows) {
+        this.size = size;
+        this.indexOf = indexOf;
+        this.rows = rows;
+    }
+
+    /**
+     * Calcula la clausura con RoyWarshall sobre filas de bits.
+     *
+     * @param offsets Los sucesores del nodo i son targets[offsets[i]] ..
+     *                targets[offsets[i + 1] - 1].
+     * @param targets Indices de los sucesores de cada nodo.
+     * @param pool    Hilos en los que se reparten las filas de cada paso.
+     * @return La matriz de alcanzabilidad.
+     */
+    public static ReachabilityMatrix closure(int[] offsets, int[] targets, ForkJoinPool pool) {
+        int n = offsets.length - 1;
+        long[][] rows = new long[n][words(n)];
+        int[] identity = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            identity[i] = i;
+            setBit(rows[i], i);
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                setBit(rows[i], targets[e]);
+            }
+        }
+
+        for (int k = 0; k < n; k++) {
+            run(pool, new WarshallStep(rows, k, 0, n), n);
+        }
+
+        return new ReachabilityMatrix(n, identity, rows);
+    }
+
+    /**
+     * Calcula la clausura sobre el grafo de componentes fuertemente
+     * conectados.
+     *
+     * @param offsets Los sucesores del nodo i son targets[offsets[i]] ..
+     *                targets[offsets[i + 1] - 1].
+     * @param targets Indices de los sucesores de cada nodo.
+     * @param pool    Hilos en los que se reparten los componentes de cada
+     *                nivel.
+     * @return La matriz de alcanzabilidad.
+     */
+    public static ReachabilityMatrix condensedClosure(int[] offsets, int[] targets, ForkJoinPool pool) {
+        int n = offsets.length - 1;
+        int[] labels = NextToYou.StronglyConnectedComponents(offsets, targets);
+
+        // Numeramos los componentes de 0 a c - 1
+        int[] dense = new int[n];
+        Arrays.fill(dense, -1);
+        int[] componentOf = new int[n];
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            if (dense[labels[i]] == -1) {
+                dense[labels[i]] = c++;
+            }
+            componentOf[i] = dense[labels[i]];
+        }
+
+        // Aristas entre componentes distintos, en formato CSR
+        int[] dagOffsets = new int[c + 1];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (componentOf[i] != componentOf[targets[e]]) {
+                    dagOffsets[componentOf[i] + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < c; i++) {
+            dagOffsets[i + 1] += dagOffsets[i];
+        }
+
+        int[] position = Arrays.copyOf(dagOffsets, c);
+        int[] dagTargets = new int[dagOffsets[c]];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                if (componentOf[i] != componentOf[targets[e]]) {
+                    dagTargets[position[componentOf[i]]++] = componentOf[targets[e]];
+                }
+            }
+        }
+
+        // Agrupamos los componentes por su distancia maxima a un sumidero:
+        // los de un mismo nivel no dependen entre si
+        int[] height = heights(dagOffsets, dagTargets);
+        int levels = 0;
+        for (int h : height) {
+            levels = Math.max(levels, h + 1);
+        }
+
+        int[] levelOffsets = new int[levels + 1];
+        for (int h : height) {
+            levelOffsets[h + 1]++;
+        }
+        for (int h = 0; h < levels; h++) {
+            levelOffsets[h + 1] += levelOffsets[h];
+        }
+
+        position = Arrays.copyOf(levelOffsets, levels);
+        int[] byLevel = new int[c];
+        for (int component = 0; component < c; component++) {
+            byLevel[position[height[component]]++] = component;
+        }
+
+        long[][] rows = new long[c][words(c)];
+        for (int h = 0; h < levels; h++) {
+            int from = levelOffsets[h];
+            int to = levelOffsets[h + 1];
+            run(pool, new CondensedStep(rows, dagOffsets, dagTargets, byLevel, from, to), to - from);
+        }
+
+        return new ReachabilityMatrix(n, componentOf, rows);
+    }
+
+    /**
+     * Calcula para cada componente la longitud del camino mas largo hasta un
+     * sumidero, recorriendo el grafo en orden topologico inverso (Kahn sobre
+     * los grados de salida).
+     */
+    private static int[] heights(int[] dagOffsets, int[] dagTargets) {
+        int c = dagOffsets.length - 1;
+        int[] height = new int[c];
+        int[] pendingSuccessors = new int[c];
+
+        // Predecesores de cada componente
+        int[] reverseOffsets = new int[c + 1];
+        for (int target : dagTargets) {
+            reverseOffsets[target + 1]++;
+        }
+        for (int i = 0; i < c; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        int[] position = Arrays.copyOf(reverseOffsets, c);
+        int[] reverseTargets = new int[dagTargets.length];
+        for (int i = 0; i < c; i++) {
+            pendingSuccessors[i] = dagOffsets[i + 1] - dagOffsets[i];
+            for (int e = dagOffsets[i]; e < dagOffsets[i + 1]; e++) {
+                reverseTargets[position[dagTargets[e]]++] = i;
+            }
+        }
+
+        int[] queue = new int[c];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < c; i++) {
+            if (pendingSuccessors[i] == 0) {
+                queue[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int component = queue[head++];
+
+            for (int e = reverseOffsets[component]; e < reverseOffsets[component + 1]; e++) {
+                int predecessor = reverseTargets[e];
+                height[predecessor] = Math.max(height[predecessor], height[component] + 1);
+
+                if (--pendingSuccessors[predecessor] == 0) {
+                    queue[tail++] = predecessor;
+                }
+            }
+        }
+
+        return height;
+    }
+
+    /**
+     * Ejecuta un paso en el pool, o en el hilo actual si es tan pequeno que
+     * no se va a dividir.
+     */
+    private static void run(ForkJoinPool pool, RecursiveAction step, int work) {
+        if (work <= GRAIN) {
+            step.invoke();
+        } else {
+            pool.invoke(step);
+        }
+    }
+
+    /**
+     * Paso k de RoyWarshall sobre las filas [from, to): toda fila que alcanza
+     * a k alcanza tambien lo que alcanza k. La fila k no cambia en este paso,
+     * asi que las filas se pueden actualizar en paralelo.
+     */
+    @SuppressWarnings("serial")
+    private static class WarshallStep extends RecursiveAction {
+
+        private long[][] rows;
+        private int k;
+        private int from;
+        private int to;
+
+        WarshallStep(long[][] rows, int k, int from, int to) {
+            this.rows = rows;
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new WarshallStep(rows, k, from, middle), new WarshallStep(rows, k, middle, to));
+                return;
+            }
+
+            long[] pivot = rows[k];
+
+            for (int i = from; i < to; i++) {
+                long[] row = rows[i];
+
+                if (i == k || !hasBit(row, k)) {
+                    continue;
+                }
+
+                for (int w = 0; w < row.length; w++) {
+                    row[w] |= pivot[w];
+                }
+            }
+        }
+    }
+
+    /**
+     * Calcula las filas de los componentes byLevel[from .. to - 1], que son
+     * de un mismo nivel: cada una es el propio componente mas la union de las
+     * filas de sus sucesores, ya calculadas en niveles anteriores.
+     */
+    @SuppressWarnings("serial")
+    private static class CondensedStep extends RecursiveAction {
+
+        private long[][] rows;
+        private int[] dagOffsets;
+        private int[] dagTargets;
+        private int[] byLevel;
+        private int from;
+        private int to;
+
+        CondensedStep(long[][] rows, int[] dagOffsets, int[] dagTargets, int[] byLevel, int from, int to) {
+            this.rows = rows;
+            this.dagOffsets = dagOffsets;
+            this.dagTargets = dagTargets;
+            this.byLevel = byLevel;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute() {
+            if (to - from > GRAIN) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CondensedStep(rows, dagOffsets, dagTargets, byLevel, from, middle),
+                        new CondensedStep(rows, dagOffsets, dagTargets, byLevel, middle, to));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                int component = byLevel[i];
+                long[] row = rows[component];
+                setBit(row, component);
+
+                for (int e = dagOffsets[component]; e < dagOffsets[component + 1]; e++) {
+                    long[] successor = rows[dagTargets[e]];
+                    for (int w = 0; w < row.length; w++) {
+                        row[w] |= successor[w];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Devuelve True si hay un camino de from a to.
+     *
+     * @param from Indice del nodo de origen.
+     * @param to   Indice del nodo de destino.
+     * @return True si to es alcanzable desde from.
+     */
+    public boolean reachable(int from, int to) {
+        return hasBit(rows[indexOf[from]], indexOf[to]);
+    }
+
+    /**
+     * Devuelve la cantidad de nodos.
+     *
+     * @return La cantidad de nodos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Devuelve la matriz como boolean[][], con el formato de RoyWarshall.
+     *
+     * @return Una matriz donde la posicion i,j indica si hay un camino de i a j.
+     */
+    public boolean[][] toBooleanMatrix() {
+        boolean[][] matrix = new boolean[size][size];
+
+        for (int i = 0; i < size; i++) {
+            long[] row = rows[indexOf[i]];
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = hasBit(row, indexOf[j]);
+            }
+        }
+
+        return matrix;
+    }
+
+    private static int words(int columns) {
+        return (columns + 63) >>> 6;
+    }
+
+    private static boolean hasBit(long[] row, int column) {
+        return (row[column >>> 6] & (1L << column)) != 0;
+    }
+
+    private static void setBit(long[] row, int column) {
+        row[column >>> 6] |= 1L << column;
+    }
+}
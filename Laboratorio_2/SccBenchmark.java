@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+//Correr de la siguiente forma: javac *.java && java SccBenchmark [comercios] [gradoPromedio]
+//O sobre el archivo de conexiones: java SccBenchmark --file Caracas.txt
+//Por ejemplo: java -Xmx8g SccBenchmark 2000000 5
+
+public class SccBenchmark {
+
+    // Repeticiones de cada medicion; la primera es de calentamiento y no se
+    // reporta.
+    private static final int ITERATIONS = 4;
+
+    public static void main(String[] args) throws IOException {
+
+        CsrGraph<?> csr;
+        if (args.length > 1 && args[0].equals("--file")) {
+            csr = NextToYou.readGraph(args[1]);
+        } else {
+            int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+            int degree = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+            csr = generate(vertices, degree);
+        }
+
+        int[] offsets = csr.getOffsets();
+        int[] targets = csr.getTargets();
+
+        System.out.printf("comercios=%d conexiones=%d%n", csr.vertexCount(), csr.edgeCount());
+        System.out.printf("%-22s %7s %12s %10s%n", "implementacion", "hilos", "ms", "speedup");
+
+        // Referencia: el Tarjan secuencial de NextToYou
+        int[] expected = null;
+        long baseline = 0;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            long start = System.nanoTime();
+            int[] components = NextToYou.StronglyConnectedComponents(offsets, targets);
+            long elapsed = System.nanoTime() - start;
+
+            if (iteration > 0) {
+                baseline += elapsed;
+            } else {
+                expected = components;
+            }
+        }
+
+        report("Tarjan", 1, baseline, baseline);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long total = 0;
+
+            for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+                long start = System.nanoTime();
+                int[] components = ParallelScc.components(offsets, targets, pool);
+                long elapsed = System.nanoTime() - start;
+
+                // Todas las repeticiones deben dar lo mismo que el secuencial
+                if (!Arrays.equals(components, expected)) {
+                    throw new IllegalStateException("Componentes distintos con " + threads + " hilos");
+                }
+                if (iteration > 0) {
+                    total += elapsed;
+                }
+            }
+
+            pool.shutdown();
+            report("ParallelScc", threads, total, baseline);
+        }
+    }
+
+    /**
+     * Imprime una fila de resultados.
+     */
+    private static void report(String name, int threads, long nanos, long baseline) {
+        System.out.printf("%-22s %7d %12.2f %9.2fx%n", name, threads, nanos / (ITERATIONS - 1.0) / 1e6,
+                (double) baseline / nanos);
+    }
+
+    /**
+     * Genera un grafo dirigido con n comercios y grado de salida promedio
+     * degree. El destino de cada conexion se elige con probabilidad
+     * proporcional a 1 / k para el comercio de rango k, asi hay un componente
+     * gigante, muchos comercios sueltos y algunos componentes pequenos.
+     *
+     * @param n      La cantidad de comercios.
+     * @param degree El grado de salida promedio.
+     * @return El grafo en formato CSR.
+     */
+    private static CsrGraph<Integer> generate(int n, int degree) {
+        int edges = (int) Math.min(Integer.MAX_VALUE / 2, (long) n * degree);
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int[] offsets = new int[n + 1];
+        Random random = new Random(42);
+
+        for (int i = 0; i < edges; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble())) - 1);
+            offsets[from[i] + 1]++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] position = new int[n];
+        int[] targets = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            targets[offsets[from[i]] + position[from[i]]++] = to[i];
+        }
+
+        List<Integer> vertices = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            vertices.add(v);
+        }
+
+        return new CsrGraph<>(vertices, offsets, targets, false);
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+//Correr de la siguiente forma: javac *.java && java -ea main
+
+public class main {
+    public static void main(String[] args) throws IOException {
+
+        System.out.println("Inicio de casos de pruebas");
+
+        Random random = new Random(11);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // condensedClosure() y closure() contra un BFS desde cada nodo, con
+        // grafos que cruzan el limite de 64 columnas por palabra
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(150);
+            int[][] csr = randomGraph(random, n, random.nextInt(3 * n + 1));
+            int[] offsets = csr[0];
+            int[] targets = csr[1];
+
+            ReachabilityMatrix closure = ReachabilityMatrix.closure(offsets, targets, pool);
+            ReachabilityMatrix condensed = ReachabilityMatrix.condensedClosure(offsets, targets, pool);
+
+            assert closure.size() == n;
+            assert condensed.size() == n;
+            assert Arrays.deepEquals(closure.toBooleanMatrix(), condensed.toBooleanMatrix());
+
+            for (int from = 0; from < n; from++) {
+                boolean[] reached = reach(offsets, targets, from);
+                for (int to = 0; to < n; to++) {
+                    assert closure.reachable(from, to) == reached[to];
+                    assert condensed.reachable(from, to) == reached[to];
+                }
+            }
+        }
+
+        // StronglyConnectedComponents() contra la clausura: i y j estan en el
+        // mismo componente si cada uno alcanza al otro, y la etiqueta es el
+        // menor de esos indices
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 1 + random.nextInt(150);
+            int[][] csr = randomGraph(random, n, random.nextInt(2 * n + 1));
+            ReachabilityMatrix closure = ReachabilityMatrix.closure(csr[0], csr[1], pool);
+
+            int[] expected = new int[n];
+            for (int i = 0; i < n; i++) {
+                int j = 0;
+                while (!closure.reachable(i, j) || !closure.reachable(j, i)) {
+                    j++;
+                }
+                expected[i] = j;
+            }
+
+            assert Arrays.equals(NextToYou.StronglyConnectedComponents(csr[0], csr[1]), expected);
+        }
+
+        // Una cadena de 200000 nodos que cierra un ciclo en la segunda mitad:
+        // la busqueda baja hasta el final sin recursion
+        int chain = 200000;
+        int[] chainOffsets = new int[chain + 1];
+        int[] chainTargets = new int[chain];
+        for (int i = 0; i < chain; i++) {
+            chainOffsets[i + 1] = i + 1;
+            chainTargets[i] = i + 1 < chain ? i + 1 : chain / 2;
+        }
+        int[] chainComponents = NextToYou.StronglyConnectedComponents(chainOffsets, chainTargets);
+        for (int i = 0; i < chain; i++) {
+            assert chainComponents[i] == Math.min(i, chain / 2);
+        }
+
+        // ParallelScc.components() contra Tarjan secuencial, con grafos mas
+        // grandes que GRAIN para que las tareas se dividan entre los hilos.
+        // Con pocas conexiones por nodo quedan muchos componentes chicos para
+        // la poda y los grupos de Tarjan; con mas aparece uno gigante.
+        for (int trial = 0; trial < 12; trial++) {
+            int n = 1025 + random.nextInt(4000);
+            int[][] csr = randomGraph(random, n, n / 2 + random.nextInt(3 * n));
+            int[] expected = NextToYou.StronglyConnectedComponents(csr[0], csr[1]);
+
+            assert Arrays.equals(ParallelScc.components(csr[0], csr[1], pool), expected);
+            assert Arrays.equals(NextToYou.ParallelStronglyConnectedComponents(csr[0], csr[1], pool), expected);
+        }
+
+        pool.shutdown();
+
+        // readGraph() toma el destino hasta la siguiente coma, como split(",")
+        Path connections = Files.createTempFile("main", ".txt");
+        Files.writeString(connections, "a, b, c\nb,a\nsin coma\n c , a \n");
+        CsrGraph<String> read = NextToYou.readGraph(connections.toString());
+        assert read.vertexCount() == 3;
+        assert read.edgeCount() == 3;
+        assert read.getId("b, c") == -1;
+        assert read.outDegree(read.getId("a")) == 1;
+        assert read.outDegree(read.getId("c")) == 1;
+        Files.delete(connections);
+
+        // IncrementalScc contra Tarjan sobre el grafo completo despues de cada
+        // connect() o disconnect() al azar, vacio y desde un CsrGraph
+        for (int trial = 0; trial < 40; trial++) {
+            int n = 1 + random.nextInt(30);
+            List<String> names = new ArrayList<>();
+            Map<String, Integer> ids = new HashMap<>();
+            List<Set<Integer>> successors = new ArrayList<>();
+            IncrementalScc incremental;
+
+            if (trial % 2 == 0) {
+                incremental = new IncrementalScc();
+            } else {
+                int[][] csr = randomGraph(random, n, random.nextInt(2 * n + 1));
+                for (int v = 0; v < n; v++) {
+                    indexOf("v" + v, names, ids, successors);
+                    for (int e = csr[0][v]; e < csr[0][v + 1]; e++) {
+                        successors.get(v).add(csr[1][e]);
+                    }
+                }
+                incremental = new IncrementalScc(new CsrGraph<>(new ArrayList<>(names), csr[0], csr[1], false));
+                checkScc(incremental, successors);
+            }
+
+            for (int step = 0; step < 300; step++) {
+                String from = "v" + random.nextInt(n + 5);
+                String to = "v" + random.nextInt(n + 5);
+
+                if (random.nextInt(3) == 0) {
+                    Integer u = ids.get(from);
+                    Integer v = ids.get(to);
+                    boolean existed = u != null && v != null && successors.get(u).remove(v);
+                    assert incremental.disconnect(from, to) == existed;
+                } else {
+                    int u = indexOf(from, names, ids, successors);
+                    int v = indexOf(to, names, ids, successors);
+                    assert incremental.connect(from, to) == successors.get(u).add(v);
+                }
+
+                checkScc(incremental, successors);
+            }
+        }
+
+        System.out.println("Todos los casos funcionan");
+
+    }
+
+    /**
+     * Genera un grafo dirigido al azar en formato CSR, con repetidas y lazos.
+     */
+    private static int[][] randomGraph(Random random, int n, int edges) {
+        int[] from = new int[edges];
+        int[] offsets = new int[n + 1];
+
+        for (int i = 0; i < edges; i++) {
+            from[i] = random.nextInt(n);
+            offsets[from[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] position = Arrays.copyOf(offsets, n);
+        int[] targets = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            targets[position[from[i]]++] = random.nextInt(n);
+        }
+
+        return new int[][] { offsets, targets };
+    }
+
+    /**
+     * Devuelve el indice de un nombre, agregandolo al final si es nuevo, en el
+     * mismo orden en que IncrementalScc numera los comercios.
+     */
+    private static int indexOf(String name, List<String> names, Map<String, Integer> ids,
+            List<Set<Integer>> successors) {
+        Integer index = ids.get(name);
+        if (index == null) {
+            index = names.size();
+            ids.put(name, index);
+            names.add(name);
+            successors.add(new TreeSet<>());
+        }
+        return index;
+    }
+
+    /**
+     * Compara los componentes y el total de deliverys de IncrementalScc con
+     * Tarjan sobre el grafo completo.
+     */
+    private static void checkScc(IncrementalScc incremental, List<Set<Integer>> successors) {
+        int n = successors.size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + successors.get(v).size();
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int e = offsets[v];
+            for (int w : successors.get(v)) {
+                targets[e++] = w;
+            }
+        }
+
+        int[] components = NextToYou.StronglyConnectedComponents(offsets, targets);
+        assert Arrays.equals(incremental.getComponents(), components);
+
+        int[] counts = new int[3];
+        for (int size : NextToYou.countStronglyConnectedComponentSize(components).values()) {
+            counts[size <= 2 ? 0 : size <= 5 ? 1 : 2]++;
+        }
+        assert incremental.getSmallLocalityCount() == counts[0];
+        assert incremental.getMediumLocalityCount() == counts[1];
+        assert incremental.getLargeLocalityCount() == counts[2];
+        assert incremental.totalDeliverys() == NextToYou.totalDeliverys(counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * Devuelve los nodos alcanzables desde source, incluido el mismo.
+     */
+    private static boolean[] reach(int[] offsets, int[] targets, int source) {
+        boolean[] reached = new boolean[offsets.length - 1];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        reached[source] = true;
+        queue.add(source);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                if (!reached[targets[e]]) {
+                    reached[targets[e]] = true;
+                    queue.add(targets[e]);
+                }
+            }
+        }
+
+        return reached;
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Conjunto de vertices adyacentes que se adapta al grado del vertice.
+ *
+ * Mientras el grado es pequeño se guarda solo un arreglo y las busquedas son
+ * lineales; al superar el umbral se construye un indice hash con la posicion
+ * de cada elemento, de modo que agregar, buscar y eliminar son O(1)
+ * amortizado. Se expone como una lista para mantener el contrato de Graph.
+ *
+ * Los elementos quedan en orden de insercion hasta la primera eliminacion:
+ * para que eliminar sea O(1) el ultimo elemento ocupa el hueco, asi que
+ * despues de eliminar el orden ya no es el de insercion. Los iteradores
+ * fallan con ConcurrentModificationException si el conjunto cambia mientras
+ * se recorre.
+ */
+public class AdjacencySet<T> extends AbstractList<T> implements RandomAccess {
+
+    // Grado a partir del cual se construye el indice hash.
+    private static final int HASH_THRESHOLD = 16;
+
+    private ArrayList<T> elements;
+    private Map<T, Integer> positions;
+
+    public AdjacencySet() {
+        elements = new ArrayList<>();
+    }
+
+    public AdjacencySet(int expectedSize) {
+        elements = new ArrayList<>(expectedSize);
+    }
+
+    /**
+     * Devuelve el elemento en la posicion indicada.
+     *
+     * @param index La posicion del elemento.
+     * @return El elemento en esa posicion.
+     */
+    public T get(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Devuelve la cantidad de elementos del conjunto.
+     *
+     * @return La cantidad de elementos.
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Devuelve True si el conjunto contiene el elemento, False en caso
+     * contrario.
+     *
+     * @param element El elemento a buscar.
+     * @return True si el elemento esta, False en caso contrario.
+     */
+    public boolean contains(Object element) {
+        if (positions == null) {
+            return elements.contains(element);
+        }
+        return positions.containsKey(element);
+    }
+
+    /**
+     * Agrega un elemento al conjunto si no estaba.
+     *
+     * @param element El elemento a agregar.
+     * @return True si el elemento se agrego, False si ya estaba.
+     */
+    public boolean add(T element) {
+        if (this.contains(element)) {
+            return false;
+        }
+
+        elements.add(element);
+        modCount++;
+
+        if (positions != null) {
+            positions.put(element, elements.size() - 1);
+        } else if (elements.size() > HASH_THRESHOLD) {
+            buildIndex();
+        }
+
+        return true;
+    }
+
+    /**
+     * Elimina un elemento del conjunto. El ultimo elemento pasa a ocupar su
+     * posicion, por lo que el orden no se conserva.
+     *
+     * @param element El elemento a eliminar.
+     * @return True si el elemento se elimino, False en caso contrario.
+     */
+    public boolean remove(Object element) {
+        int index;
+
+        if (positions == null) {
+            index = elements.indexOf(element);
+        } else {
+            Integer position = positions.remove(element);
+            index = position == null ? -1 : position;
+        }
+
+        if (index == -1) {
+            return false;
+        }
+
+        modCount++;
+
+        // Mueve el ultimo elemento al hueco para que eliminar sea O(1).
+        T last = elements.remove(elements.size() - 1);
+        if (index < elements.size()) {
+            elements.set(index, last);
+            if (positions != null) {
+                positions.put(last, index);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reserva espacio para que el conjunto pueda crecer hasta capacity
+     * elementos sin copiar su arreglo.
+     *
+     * @param capacity La cantidad de elementos esperada.
+     */
+    public void ensureCapacity(int capacity) {
+        elements.ensureCapacity(capacity);
+    }
+
+    /**
+     * Elimina todos los elementos del conjunto.
+     */
+    public void clear() {
+        elements.clear();
+        positions = null;
+        modCount++;
+    }
+
+    /**
+     * Construye el indice hash con la posicion de cada elemento.
+     */
+    private void buildIndex() {
+        positions = new HashMap<>(elements.size() * 2);
+        for (int i = 0; i < elements.size(); i++) {
+            positions.put(elements.get(i), i);
+        }
+    }
+}
@@ -0,0 +1,494 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Grafo dirigido seguro para hilos.
+ *
+ * Las listas de sucesores y predecesores de cada vertice son arreglos
+ * inmutables que se reemplazan completos en cada escritura (copy-on-write),
+ * por lo que las lecturas no toman locks y nunca esperan. Las escrituras
+ * toman los locks de las franjas (stripes) a las que pertenecen los vertices
+ * involucrados, siempre en orden creciente para evitar interbloqueos.
+ */
+public class ConcurrentAdjacencyListGraph<T> implements Graph<T> {
+
+    private static final int STRIPES = 64;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Listas de adyacencia de un vertice. Los arreglos nunca se modifican
+     * despues de publicarse.
+     */
+    private static class Node {
+        volatile Object[] successors = EMPTY;
+        volatile Object[] predecessors = EMPTY;
+    }
+
+    private ConcurrentHashMap<Object, Node> nodes;
+    private ReentrantLock[] locks;
+
+    public ConcurrentAdjacencyListGraph() {
+        nodes = new ConcurrentHashMap<>();
+        locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Agrega un nuevo vertice al grafo.
+     *
+     * @param vertex El vertice que se agregará al grafo.
+     * @return True si el vertice se agrego con éxito, False en caso contrario.
+     */
+    public boolean add(T vertex) {
+        ReentrantLock lock = locks[stripe(vertex)];
+        lock.lock();
+        try {
+            return nodes.putIfAbsent(vertex, new Node()) == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Agrega una arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se agrego, False en caso contrario.
+     */
+    public boolean connect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        lockPair(from, to);
+        try {
+            Node fromNode = nodes.get(from);
+            Node toNode = nodes.get(to);
+
+            if (fromNode == null || toNode == null) {
+                return false;
+            }
+
+            if (indexOf(fromNode.successors, to) != -1) {
+                return false;
+            }
+
+            fromNode.successors = append(fromNode.successors, to);
+            toNode.predecessors = append(toNode.predecessors, from);
+            return true;
+        } finally {
+            unlockPair(from, to);
+        }
+    }
+
+    /**
+     * Elimina la arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se elimino, False en caso contrario.
+     */
+    public boolean disconnect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        lockPair(from, to);
+        try {
+            Node fromNode = nodes.get(from);
+            Node toNode = nodes.get(to);
+
+            if (fromNode == null || toNode == null) {
+                return false;
+            }
+
+            if (indexOf(fromNode.successors, to) == -1) {
+                return false;
+            }
+
+            fromNode.successors = without(fromNode.successors, to);
+            toNode.predecessors = without(toNode.predecessors, from);
+            return true;
+        } finally {
+            unlockPair(from, to);
+        }
+    }
+
+    /**
+     * Devuelve True si el grafo contiene el vertice, False en caso contrario.
+     *
+     * @param vertex El vertice a buscar.
+     * @return True si el vertice esta, False en caso contrario.
+     */
+    public boolean contains(T vertex) {
+        return nodes.containsKey(vertex);
+    }
+
+    /**
+     * Devuelve una lista de solo lectura con los vertices que tienen una arista
+     * dirigida hacia to.
+     *
+     * @param to El vertice del que se obtendrán las aristas entrantes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getInwardEdges(T to) {
+        Node node = nodes.get(to);
+
+        if (node == null) {
+            return null;
+        }
+
+        return asList(node.predecessors);
+    }
+
+    /**
+     * Devuelve una lista de solo lectura con los vertices a los que from tiene
+     * una arista dirigida.
+     *
+     * @param from El vertice del que se obtendrán las aristas salientes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getOutwardEdges(T from) {
+        Node node = nodes.get(from);
+
+        if (node == null) {
+            return null;
+        }
+
+        return asList(node.successors);
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice, recorriendo la copia
+     * publicada en ese momento.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        Node node = nodes.get(vertex);
+
+        if (node == null) {
+            return;
+        }
+
+        for (Object to : node.successors) {
+            action.accept((T) to);
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice, recorriendo la copia
+     * publicada en ese momento.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        Node node = nodes.get(vertex);
+
+        if (node == null) {
+            return;
+        }
+
+        for (Object from : node.predecessors) {
+            action.accept((T) from);
+        }
+    }
+
+    /**
+     * Devuelve una lista con los vértices adyacentes.
+     *
+     * @param vertex El vertice del que se obtendrán los adyacentes.
+     * @return Una lista con los vertices adyacentes.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getVerticesConnectedTo(T vertex) {
+        Node node = nodes.get(vertex);
+
+        if (node == null) {
+            return null;
+        }
+
+        Object[] successors = node.successors;
+        Object[] predecessors = node.predecessors;
+        List<T> connectedVertices = new ArrayList<>(successors.length + predecessors.length);
+
+        for (Object to : successors) {
+            connectedVertices.add((T) to);
+        }
+
+        for (Object from : predecessors) {
+            connectedVertices.add((T) from);
+        }
+
+        return connectedVertices;
+    }
+
+    /**
+     * Devuelve la lista de todos los vertices del grafo.
+     *
+     * @return La lista de todos los vertices del grafo.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> getAllVertices() {
+        return new ArrayList<>((Set<T>) (Set<?>) nodes.keySet());
+    }
+
+    /**
+     * Aplica la accion a cada vertice del grafo sin copiar el conjunto de
+     * vertices.
+     *
+     * @param action La accion a aplicar.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachVertex(Consumer<? super T> action) {
+        for (Object vertex : nodes.keySet()) {
+            action.accept((T) vertex);
+        }
+    }
+
+    /**
+     * Devuelve un iterador de solo lectura sobre los vertices del grafo, sin
+     * copiarlos.
+     *
+     * @return El iterador.
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<T> vertexIterator() {
+        return Collections.unmodifiableSet((Set<T>) (Set<?>) nodes.keySet()).iterator();
+    }
+
+    /**
+     * Elimina el vertice del grafo.
+     *
+     * Toma a la vez los locks del vertice y de todos sus vecinos; si mientras
+     * los toma aparece un vecino nuevo en otra franja, los suelta y reintenta.
+     *
+     * @param vertex El vertice a eliminar.
+     * @return True si el vertice se eliminó, False en caso contrario.
+     */
+    public boolean remove(T vertex) {
+
+        while (true) {
+            Node node = nodes.get(vertex);
+
+            if (node == null) {
+                return false;
+            }
+
+            BitSet stripes = neighborStripes(vertex, node);
+            lockAll(stripes);
+            try {
+                if (nodes.get(vertex) != node) {
+                    continue;
+                }
+
+                // Un vecino nuevo pudo conectarse antes de tomar los locks.
+                BitSet current = neighborStripes(vertex, node);
+                current.andNot(stripes);
+                if (!current.isEmpty()) {
+                    continue;
+                }
+
+                nodes.remove(vertex);
+
+                // Elimina el vertice de la lista de predecesores de sus sucesores.
+                for (Object to : node.successors) {
+                    Node toNode = nodes.get(to);
+                    toNode.predecessors = without(toNode.predecessors, vertex);
+                }
+
+                // Elimina el vertice de la lista de sucesores de sus predecesores.
+                for (Object from : node.predecessors) {
+                    Node fromNode = nodes.get(from);
+                    fromNode.successors = without(fromNode.successors, vertex);
+                }
+
+                return true;
+            } finally {
+                unlockAll(stripes);
+            }
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de vertices que contiene el grafo.
+     *
+     * @return La cantidad de vertices que contiene el grafo.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Devuelve una subgrafo del grafo original que contiene solo los vertices
+     * especificados en la coleccion.
+     *
+     * @param vertices La colección de vertices que se incluirán en el subgrafo.
+     * @return Un subgrafo que contiene solo los vertices.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentAdjacencyListGraph<T> subgraph(Collection<T> vertices) {
+        ConcurrentAdjacencyListGraph<T> subgraph = new ConcurrentAdjacencyListGraph<>();
+        Set<T> members = new HashSet<>(vertices);
+
+        for (T vertex : members) {
+            if (this.contains(vertex)) {
+                subgraph.add(vertex);
+            }
+        }
+
+        for (T vertex : subgraph.getAllVertices()) {
+            Node node = nodes.get(vertex);
+
+            if (node == null) {
+                continue;
+            }
+
+            for (Object to : node.successors) {
+                if (members.contains(to)) {
+                    subgraph.connect(vertex, (T) to);
+                }
+            }
+        }
+
+        return subgraph;
+    }
+
+    /**
+     * Devuelve la franja de locks a la que pertenece el vertice.
+     *
+     * @param vertex El vertice.
+     * @return El indice de la franja.
+     */
+    private static int stripe(Object vertex) {
+        int hash = vertex.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Toma los locks de los dos vertices en orden creciente de franja.
+     */
+    private void lockPair(Object a, Object b) {
+        int first = stripe(a);
+        int second = stripe(b);
+
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    /**
+     * Suelta los locks tomados por lockPair.
+     */
+    private void unlockPair(Object a, Object b) {
+        int first = stripe(a);
+        int second = stripe(b);
+
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+
+    /**
+     * Calcula las franjas del vertice y de todos sus vecinos actuales.
+     */
+    private static BitSet neighborStripes(Object vertex, Node node) {
+        BitSet stripes = new BitSet(STRIPES);
+        stripes.set(stripe(vertex));
+
+        for (Object to : node.successors) {
+            stripes.set(stripe(to));
+        }
+
+        for (Object from : node.predecessors) {
+            stripes.set(stripe(from));
+        }
+
+        return stripes;
+    }
+
+    /**
+     * Toma los locks de las franjas indicadas en orden creciente.
+     */
+    private void lockAll(BitSet stripes) {
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            locks[i].lock();
+        }
+    }
+
+    /**
+     * Suelta los locks tomados por lockAll.
+     */
+    private void unlockAll(BitSet stripes) {
+        for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Devuelve la posicion del elemento en el arreglo, o -1 si no esta.
+     */
+    private static int indexOf(Object[] array, Object element) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Devuelve una copia del arreglo con el elemento agregado al final.
+     */
+    private static Object[] append(Object[] array, Object element) {
+        Object[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = element;
+        return copy;
+    }
+
+    /**
+     * Devuelve una copia del arreglo sin el elemento.
+     */
+    private static Object[] without(Object[] array, Object element) {
+        int index = indexOf(array, element);
+
+        if (index == -1) {
+            return array;
+        }
+
+        Object[] copy = new Object[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        System.arraycopy(array, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    /**
+     * Envuelve un arreglo publicado en una lista de solo lectura sin copiarlo.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] array) {
+        return Collections.unmodifiableList((List<T>) Arrays.asList(array));
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+//Correr de la siguiente forma: javac *.java && java -ea ConcurrentStress
+
+public class ConcurrentStress {
+
+    private static final int VERTICES = 20000;
+    private static final int EDGES = 200000;
+    private static final long DURATION_MS = 1000;
+
+    // Evita que el compilador descarte las lecturas.
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws InterruptedException {
+
+        ConcurrentAdjacencyListGraph<Integer> graph = new ConcurrentAdjacencyListGraph<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < VERTICES; i++) {
+            graph.add(i);
+        }
+
+        for (int i = 0; i < EDGES; i++) {
+            graph.connect(random.nextInt(VERTICES), random.nextInt(VERTICES));
+        }
+
+        System.out.println("Inicio de prueba de estres");
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double baseline = 0;
+
+        // Mide las lecturas por segundo con 1, 2, 4, ... lectores y dos escritores
+        for (int readers = 1; readers <= cores; readers *= 2) {
+            double throughput = run(graph, readers, 2);
+
+            if (readers == 1) {
+                baseline = throughput;
+            }
+
+            System.out.printf("lectores=%d lecturas/s=%.0f aceleracion=%.2fx%n", readers, throughput,
+                    throughput / baseline);
+        }
+
+        // Las listas de sucesores y predecesores deben seguir siendo consistentes
+        for (Integer from : graph.getAllVertices()) {
+            for (Integer to : graph.getOutwardEdges(from)) {
+                assert graph.getInwardEdges(to).contains(from);
+            }
+            for (Integer to : graph.getInwardEdges(from)) {
+                assert graph.getOutwardEdges(to).contains(from);
+            }
+        }
+
+        System.out.println("El grafo quedo consistente");
+    }
+
+    /**
+     * Ejecuta lectores y escritores durante DURATION_MS y devuelve las lecturas
+     * por segundo.
+     *
+     * @param graph   Grafo compartido.
+     * @param readers Cantidad de hilos lectores.
+     * @param writers Cantidad de hilos escritores.
+     * @return Lecturas por segundo.
+     */
+    private static double run(ConcurrentAdjacencyListGraph<Integer> graph, int readers, int writers)
+            throws InterruptedException {
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int r = 0; r < readers; r++) {
+            long seed = r;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                long count = 0;
+                long sink = 0;
+
+                while (running.get()) {
+                    List<Integer> neighbors = graph.getVerticesConnectedTo(random.nextInt(VERTICES));
+                    if (neighbors != null) {
+                        sink += neighbors.size();
+                    }
+                    count++;
+                }
+
+                reads.add(count);
+                blackhole = sink;
+            }));
+        }
+
+        for (int w = 0; w < writers; w++) {
+            long seed = 1000 + w;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+
+                while (running.get()) {
+                    int from = random.nextInt(VERTICES);
+                    int to = random.nextInt(VERTICES);
+                    int action = random.nextInt(10);
+
+                    if (action < 5) {
+                        graph.connect(from, to);
+                    } else if (action < 9) {
+                        graph.disconnect(from, to);
+                    } else {
+                        graph.remove(from);
+                        graph.add(from);
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        Thread.sleep(DURATION_MS);
+        running.set(false);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        return reads.sum() * 1000.0 / DURATION_MS;
+    }
+}
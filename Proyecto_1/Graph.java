@@ -1,5 +1,7 @@
 import java.util.List;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Consumer;
 
 interface Graph<T> {
     boolean add(T vertex);
@@ -23,4 +25,104 @@ interface Graph<T> {
     int size();
 
     Graph<T> subgraph(Collection<T> vertices);
+
+    /**
+     * Devuelve una vista perezosa del subgrafo con los vertices indicados, sin
+     * copiar vertices ni aristas.
+     *
+     * @param vertices La colección de vertices que se incluirán en la vista.
+     * @return La vista del subgrafo.
+     */
+    default SubgraphView<T> subgraphView(Collection<T> vertices) {
+        return new SubgraphView<>(this, vertices);
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice. Si el vertice no esta no
+     * hace nada.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    default void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        List<T> successors = getOutwardEdges(vertex);
+        if (successors != null) {
+            successors.forEach(action);
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice. Si el vertice no esta no
+     * hace nada.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    default void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        List<T> predecessors = getInwardEdges(vertex);
+        if (predecessors != null) {
+            predecessors.forEach(action);
+        }
+    }
+
+    /**
+     * Aplica la accion a cada vertice adyacente, primero los sucesores y luego
+     * los predecesores, igual que getVerticesConnectedTo.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    default void forEachNeighbor(T vertex, Consumer<? super T> action) {
+        forEachOutNeighbor(vertex, action);
+        forEachInNeighbor(vertex, action);
+    }
+
+    /**
+     * Aplica la accion a cada vertice del grafo.
+     *
+     * @param action La accion a aplicar.
+     */
+    default void forEachVertex(Consumer<? super T> action) {
+        getAllVertices().forEach(action);
+    }
+
+    /**
+     * Devuelve un iterador de solo lectura sobre los vertices del grafo.
+     *
+     * @return El iterador.
+     */
+    default Iterator<T> vertexIterator() {
+        return getAllVertices().iterator();
+    }
+
+    /**
+     * Agrega todos los vertices de la coleccion.
+     *
+     * @param vertices Los vertices a agregar.
+     * @return True si se agrego al menos un vertice, False en caso contrario.
+     */
+    default boolean addAll(Collection<T> vertices) {
+        boolean changed = false;
+        for (T vertex : vertices) {
+            changed |= add(vertex);
+        }
+        return changed;
+    }
+
+    /**
+     * Agrega las aristas sources[i] -> targets[i] para cada posicion i.
+     *
+     * @param sources Los vertices de origen.
+     * @param targets Los vertices de destino, en la misma posicion que su origen.
+     * @return La cantidad de aristas que se agregaron.
+     */
+    default int connectAll(List<T> sources, List<T> targets) {
+        int added = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            if (connect(sources.get(i), targets.get(i))) {
+                added++;
+            }
+        }
+        return added;
+    }
 }
\ No newline at end of file
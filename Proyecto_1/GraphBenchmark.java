@@ -0,0 +1,327 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+//Correr de la siguiente forma: javac *.java && java GraphBenchmark [maxAristas] [implementacion]
+//Por ejemplo: java -Xmx8g GraphBenchmark 10000000 AdjacencyListGraph
+
+public class GraphBenchmark {
+
+    // Grado promedio de los grafos sinteticos.
+    private static final int AVERAGE_DEGREE = 10;
+
+    // Operaciones medidas por iteracion y cantidad de iteraciones; la primera
+    // es de calentamiento y no se reporta.
+    private static final int OPERATIONS = 100000;
+    private static final int SUBGRAPH_OPERATIONS = 20;
+    private static final int ITERATIONS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory
+            .getThreadMXBean();
+
+    // Evita que el compilador descarte los resultados de las consultas.
+    private static volatile long blackhole;
+
+    // Archivos de cada MappedGraph creado, para borrarlos al descartarlo.
+    private static final Map<Graph<Integer>, Path[]> MAPPED_FILES = new IdentityHashMap<>();
+
+    /**
+     * Aristas sinteticas: la arista i va de sources[i] a targets[i]. Los
+     * vertices ya estan en Integer, asi las operaciones medidas no reservan
+     * memoria para convertirlos.
+     */
+    private static class Workload {
+        String distribution;
+        int vertices;
+        Integer[] ids;
+        Integer[] sources;
+        Integer[] targets;
+    }
+
+    /**
+     * Resultado de medir una operacion.
+     */
+    private static class Result {
+        long operations;
+        long nanos;
+        long allocatedBytes;
+        long[] latencies;
+    }
+
+    /**
+     * Operacion a medir. Recibe el grafo y el numero de operacion y devuelve
+     * un valor que se acumula en el blackhole.
+     */
+    private interface Operation {
+        long apply(Graph<Integer> graph, int index);
+    }
+
+    public static void main(String[] args) {
+
+        long maxEdges = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        String only = args.length > 1 ? args[1] : null;
+
+        Map<String, Supplier<Graph<Integer>>> implementations = new LinkedHashMap<>();
+        implementations.put("AdjacencyListGraph", AdjacencyListGraph::new);
+        implementations.put("ConcurrentAdjacencyListGraph", ConcurrentAdjacencyListGraph::new);
+        implementations.put("VersionedGraph", VersionedGraph::new);
+        implementations.put("MappedGraph", GraphBenchmark::newMappedGraph);
+
+        System.out.printf("%-30s %-9s %10s %-24s %14s %10s %10s %10s %10s%n", "implementacion", "grafo", "aristas",
+                "operacion", "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "B/op");
+
+        for (long edges = 1000; edges <= maxEdges; edges *= 10) {
+            for (String distribution : new String[] { "uniforme", "potencia" }) {
+
+                Workload workload = generate(distribution, (int) edges);
+
+                for (Map.Entry<String, Supplier<Graph<Integer>>> implementation : implementations.entrySet()) {
+                    if (only == null || only.equals(implementation.getKey())) {
+                        benchmark(implementation.getKey(), implementation.getValue(), workload);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Mide todas las operaciones de Graph sobre una carga.
+     *
+     * @param name     Nombre de la implementacion.
+     * @param factory  Crea un grafo vacio de la implementacion.
+     * @param workload La carga sintetica.
+     */
+    private static void benchmark(String name, Supplier<Graph<Integer>> factory, Workload workload) {
+        int n = workload.vertices;
+        int m = workload.sources.length;
+        Random random = new Random(7);
+
+        // Argumentos aleatorios, generados antes de medir.
+        Integer[] vertexArgs = new Integer[OPERATIONS];
+        int[] edgeArgs = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            vertexArgs[i] = workload.ids[random.nextInt(n)];
+            edgeArgs[i] = random.nextInt(m);
+        }
+
+        List<Integer> members = new ArrayList<>();
+        for (int v = 0; v < n; v += 10) {
+            members.add(workload.ids[v]);
+        }
+
+        report(name, workload, "add", measure(factory::get, n, (g, i) -> g.add(workload.ids[i]) ? 1 : 0));
+
+        report(name, workload, "connect", measure(() -> withVertices(factory, workload), m,
+                (g, i) -> g.connect(workload.sources[i], workload.targets[i]) ? 1 : 0));
+
+        // Las consultas comparten un grafo que se descarta al final.
+        Graph<Integer> full = build(factory, workload);
+        Consumer<Graph<Integer>> keep = g -> {
+        };
+
+        report(name, workload, "getInwardEdges", measure(() -> full, keep, OPERATIONS,
+                (g, i) -> g.getInwardEdges(vertexArgs[i]).size()));
+
+        report(name, workload, "getOutwardEdges", measure(() -> full, keep, OPERATIONS,
+                (g, i) -> g.getOutwardEdges(vertexArgs[i]).size()));
+
+        report(name, workload, "getVerticesConnectedTo", measure(() -> full, keep, OPERATIONS,
+                (g, i) -> g.getVerticesConnectedTo(vertexArgs[i]).size()));
+
+        report(name, workload, "subgraph", measure(() -> full, keep, SUBGRAPH_OPERATIONS,
+                (g, i) -> g.subgraph(members).size()));
+
+        dispose(full);
+
+        report(name, workload, "disconnect", measure(() -> build(factory, workload), Math.min(m, OPERATIONS),
+                (g, i) -> g.disconnect(workload.sources[edgeArgs[i]], workload.targets[edgeArgs[i]]) ? 1 : 0));
+
+        report(name, workload, "remove", measure(() -> build(factory, workload), Math.min(n, OPERATIONS),
+                (g, i) -> g.remove(vertexArgs[i]) ? 1 : 0));
+    }
+
+    /**
+     * Mide la operacion sobre un grafo nuevo en cada iteracion, que se
+     * descarta al terminarla.
+     */
+    private static Result measure(Supplier<Graph<Integer>> setup, int operations, Operation operation) {
+        return measure(setup, GraphBenchmark::dispose, operations, operation);
+    }
+
+    /**
+     * Ejecuta la operacion operations veces por iteracion, midiendo la latencia
+     * de cada llamada, el tiempo total y los bytes reservados por el hilo.
+     *
+     * @param setup      Prepara el grafo de cada iteracion, fuera de la medicion.
+     * @param teardown   Libera el grafo de cada iteracion, fuera de la medicion.
+     * @param operations Cantidad de operaciones por iteracion.
+     * @param operation  La operacion a medir.
+     * @return El resultado acumulado de las iteraciones medidas.
+     */
+    private static Result measure(Supplier<Graph<Integer>> setup, Consumer<Graph<Integer>> teardown, int operations,
+            Operation operation) {
+        Result result = new Result();
+        result.latencies = new long[operations * (ITERATIONS - 1)];
+        long sink = 0;
+        int sample = 0;
+
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            Graph<Integer> graph = setup.get();
+            boolean warmup = iteration == 0;
+
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            for (int i = 0; i < operations; i++) {
+                long before = System.nanoTime();
+                sink += operation.apply(graph, i);
+                long after = System.nanoTime();
+
+                if (!warmup) {
+                    result.latencies[sample++] = after - before;
+                }
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+            if (!warmup) {
+                result.operations += operations;
+                result.nanos += elapsed;
+                result.allocatedBytes += allocated;
+            }
+
+            teardown.accept(graph);
+        }
+
+        blackhole = sink;
+        return result;
+    }
+
+    /**
+     * Imprime una fila de resultados.
+     */
+    private static void report(String name, Workload workload, String operation, Result result) {
+        Arrays.sort(result.latencies);
+
+        System.out.printf("%-30s %-9s %10d %-24s %14.0f %10d %10d %10d %10d%n", name, workload.distribution,
+                workload.sources.length, operation, result.operations * 1e9 / result.nanos,
+                percentile(result.latencies, 0.50), percentile(result.latencies, 0.99),
+                percentile(result.latencies, 0.999), result.allocatedBytes / result.operations);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, (long) (fraction * sorted.length))];
+    }
+
+    /**
+     * Genera una carga con m aristas y m / AVERAGE_DEGREE vertices. En la
+     * distribucion uniforme los extremos son equiprobables; en la de potencia
+     * el vertice de rango k se elige con probabilidad proporcional a 1 / k, lo
+     * que produce unos pocos vertices con grado muy alto.
+     *
+     * @param distribution "uniforme" o "potencia".
+     * @param m            La cantidad de aristas.
+     * @return La carga generada.
+     */
+    private static Workload generate(String distribution, int m) {
+        Workload workload = new Workload();
+        workload.distribution = distribution;
+        workload.vertices = Math.max(2, m / AVERAGE_DEGREE);
+        workload.ids = new Integer[workload.vertices];
+        workload.sources = new Integer[m];
+        workload.targets = new Integer[m];
+
+        for (int v = 0; v < workload.vertices; v++) {
+            workload.ids[v] = v;
+        }
+
+        Random random = new Random(42);
+        boolean powerLaw = distribution.equals("potencia");
+
+        for (int i = 0; i < m; i++) {
+            workload.sources[i] = workload.ids[pick(random, workload.vertices, powerLaw)];
+            workload.targets[i] = workload.ids[pick(random, workload.vertices, powerLaw)];
+        }
+
+        return workload;
+    }
+
+    private static int pick(Random random, int n, boolean powerLaw) {
+        if (!powerLaw) {
+            return random.nextInt(n);
+        }
+
+        // Muestreo log-uniforme: densidad proporcional a 1 / k.
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, random.nextDouble())) - 1);
+    }
+
+    /**
+     * Crea un grafo con los vertices 0 .. n - 1 y sin aristas.
+     */
+    private static Graph<Integer> withVertices(Supplier<Graph<Integer>> factory, Workload workload) {
+        Graph<Integer> graph = factory.get();
+        for (Integer vertex : workload.ids) {
+            graph.add(vertex);
+        }
+        return graph;
+    }
+
+    /**
+     * Crea el grafo completo de la carga.
+     */
+    private static Graph<Integer> build(Supplier<Graph<Integer>> factory, Workload workload) {
+        Graph<Integer> graph = withVertices(factory, workload);
+        for (int i = 0; i < workload.sources.length; i++) {
+            graph.connect(workload.sources[i], workload.targets[i]);
+        }
+        return graph;
+    }
+
+    /**
+     * Crea un MappedGraph sobre archivos temporales, que se borran con
+     * dispose.
+     */
+    private static Graph<Integer> newMappedGraph() {
+        try {
+            Path vertexFile = Files.createTempFile("benchmark", ".vtx");
+            Path edgeFile = Files.createTempFile("benchmark", ".adj");
+            Graph<Integer> graph = new MappedGraph<>(vertexFile, edgeFile);
+            MAPPED_FILES.put(graph, new Path[] { vertexFile, edgeFile });
+            return graph;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Descarta un grafo: si es un MappedGraph lo cierra y borra sus archivos.
+     */
+    private static void dispose(Graph<Integer> graph) {
+        Path[] files = MAPPED_FILES.remove(graph);
+
+        if (files == null) {
+            return;
+        }
+
+        try {
+            ((MappedGraph<?>) graph).close();
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Copia de solo lectura de un VersionedGraph fijada en una version.
+ *
+ * Comparte con el grafo todos los bloques y registros que no cambiaron
+ * despues de tomarla. Nada de lo que alcanza se vuelve a modificar, asi que
+ * se puede leer desde cualquier hilo mientras el grafo sigue cambiando.
+ */
+public class GraphSnapshot<T> implements Graph<T> {
+
+    private Map<T, Integer> ids;
+    private VersionedGraph.Chunk<T>[] root;
+    private int idLimit;
+    private int size;
+    private int version;
+
+    GraphSnapshot(Map<T, Integer> ids, VersionedGraph.Chunk<T>[] root, int idLimit, int size, int version) {
+        this.ids = ids;
+        this.root = root;
+        this.idLimit = idLimit;
+        this.size = size;
+        this.version = version;
+    }
+
+    /**
+     * Devuelve la version en la que se tomo la copia.
+     *
+     * @return La version de la copia.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * La copia es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean add(T vertex) {
+        throw new UnsupportedOperationException("La copia del grafo es de solo lectura");
+    }
+
+    /**
+     * La copia es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean connect(T from, T to) {
+        throw new UnsupportedOperationException("La copia del grafo es de solo lectura");
+    }
+
+    /**
+     * La copia es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean disconnect(T from, T to) {
+        throw new UnsupportedOperationException("La copia del grafo es de solo lectura");
+    }
+
+    /**
+     * Devuelve True si el grafo contenia el vertice en esta version, False en
+     * caso contrario.
+     *
+     * @param vertex El vertice a buscar.
+     * @return True si el vertice esta, False en caso contrario.
+     */
+    public boolean contains(T vertex) {
+        return record(vertex) != null;
+    }
+
+    /**
+     * Devuelve una vista de solo lectura con los vertices que tienen una arista
+     * dirigida hacia to.
+     *
+     * @param to El vertice del que se obtendrán las aristas entrantes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getInwardEdges(T to) {
+        VersionedGraph.Record<T> record = record(to);
+
+        if (record == null) {
+            return null;
+        }
+
+        return Collections.unmodifiableList(record.predecessors);
+    }
+
+    /**
+     * Devuelve una vista de solo lectura con los vertices a los que from tiene
+     * una arista dirigida.
+     *
+     * @param from El vertice del que se obtendrán las aristas salientes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getOutwardEdges(T from) {
+        VersionedGraph.Record<T> record = record(from);
+
+        if (record == null) {
+            return null;
+        }
+
+        return Collections.unmodifiableList(record.successors);
+    }
+
+    /**
+     * Devuelve una lista con los vértices adyacentes.
+     *
+     * @param vertex El vertice del que se obtendrán los adyacentes.
+     * @return Una lista con los vertices adyacentes.
+     */
+    public List<T> getVerticesConnectedTo(T vertex) {
+        VersionedGraph.Record<T> record = record(vertex);
+
+        if (record == null) {
+            return null;
+        }
+
+        List<T> connectedVertices = new ArrayList<>(record.successors.size() + record.predecessors.size());
+        connectedVertices.addAll(record.successors);
+        connectedVertices.addAll(record.predecessors);
+        return connectedVertices;
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        VersionedGraph.Record<T> record = record(vertex);
+
+        if (record != null) {
+            for (int i = 0; i < record.successors.size(); i++) {
+                action.accept(record.successors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        VersionedGraph.Record<T> record = record(vertex);
+
+        if (record != null) {
+            for (int i = 0; i < record.predecessors.size(); i++) {
+                action.accept(record.predecessors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Aplica la accion a cada vertice de la copia.
+     *
+     * @param action La accion a aplicar.
+     */
+    public void forEachVertex(Consumer<? super T> action) {
+        forEachVertex(root, idLimit, action);
+    }
+
+    /**
+     * Devuelve la lista de todos los vertices de la copia.
+     *
+     * @return La lista de todos los vertices de la copia.
+     */
+    public List<T> getAllVertices() {
+        List<T> vertices = new ArrayList<>(size);
+        forEachVertex(vertices::add);
+        return vertices;
+    }
+
+    /**
+     * La copia es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean remove(T vertex) {
+        throw new UnsupportedOperationException("La copia del grafo es de solo lectura");
+    }
+
+    /**
+     * Devuelve la cantidad de vertices de la copia.
+     *
+     * @return La cantidad de vertices de la copia.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Devuelve una subgrafo de la copia que contiene solo los vertices
+     * especificados en la coleccion.
+     *
+     * @param vertices La colección de vertices que se incluirán en el subgrafo.
+     * @return Un subgrafo que contiene solo los vertices.
+     */
+    public AdjacencyListGraph<T> subgraph(Collection<T> vertices) {
+        return subgraphView(vertices).materialize();
+    }
+
+    private VersionedGraph.Record<T> record(T vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? null : record(root, idLimit, id);
+    }
+
+    /**
+     * Busca el registro de un identificador en una raiz.
+     *
+     * @param root    La raiz de bloques.
+     * @param idLimit Los identificadores asignados cuando se fijo la raiz.
+     * @param id      El identificador.
+     * @return El registro, o null si el vertice no estaba.
+     */
+    static <T> VersionedGraph.Record<T> record(VersionedGraph.Chunk<T>[] root, int idLimit, int id) {
+        int index = id >>> VersionedGraph.CHUNK_SHIFT;
+
+        if (id >= idLimit || index >= root.length || root[index] == null) {
+            return null;
+        }
+
+        return root[index].records[id & VersionedGraph.CHUNK_MASK];
+    }
+
+    /**
+     * Aplica la accion a cada vertice presente en una raiz.
+     *
+     * @param root    La raiz de bloques.
+     * @param idLimit Los identificadores asignados cuando se fijo la raiz.
+     * @param action  La accion a aplicar.
+     */
+    static <T> void forEachVertex(VersionedGraph.Chunk<T>[] root, int idLimit, Consumer<? super T> action) {
+        for (int id = 0; id < idLimit; id++) {
+            VersionedGraph.Record<T> record = record(root, idLimit, id);
+            if (record != null) {
+                action.accept(record.vertex);
+            }
+        }
+    }
+}
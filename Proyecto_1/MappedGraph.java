@@ -0,0 +1,700 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Grafo dirigido cuyas listas de adyacencia viven en archivos mapeados a
+ * memoria, fuera del heap.
+ *
+ * En el heap solo queda el diccionario de vertice a identificador entero.
+ * El archivo de vertices guarda, para cada identificador, la posicion, el
+ * tamaño y la capacidad de su bloque de sucesores y de predecesores. El
+ * archivo de aristas es un area de bloques de enteros cuya capacidad es una
+ * potencia de dos; cuando un bloque se llena se copia a uno del doble de
+ * tamaño y el anterior se reutiliza para otros vertices. Los bloques libres
+ * no se guardan: al abrir el grafo se recuperan de los huecos que dejan los
+ * bloques en uso.
+ *
+ * Para los vertices de grado mayor a HASH_THRESHOLD se guarda ademas en el
+ * heap un indice con la posicion de cada vecino en su bloque, asi connect y
+ * disconnect no recorren el bloque completo. El indice se construye la
+ * primera vez que se necesita.
+ *
+ * Abrir un grafo ya guardado solo requiere mapear los archivos, leer la tabla
+ * de vertices y pasar la lista de vertices en el orden de sus
+ * identificadores.
+ */
+public class MappedGraph<T> implements Graph<T>, AutoCloseable {
+
+    private static final int MAGIC = 0x47524146;
+
+    // Encabezado: magic, cantidad de identificadores, tope del area de aristas.
+    private static final int HEADER_INTS = 4;
+
+    // Registro por vertice: inicio (2 enteros), tamaño y capacidad de cada lado.
+    private static final int RECORD_INTS = 8;
+    private static final int OUT = 0;
+    private static final int IN = 4;
+
+    private static final int MIN_CAPACITY = 4;
+
+    // Tamaño del bloque a partir del cual se usa el indice de posiciones.
+    private static final int HASH_THRESHOLD = 16;
+
+    private MappedIntBuffer vertexTable;
+    private MappedIntBuffer edges;
+
+    private List<T> vertices;
+    private Map<T, Integer> ids;
+
+    private long edgeTop;
+
+    // Bloques libres agrupados por log2 de su capacidad.
+    private ArrayDeque<Long>[] freeBlocks;
+
+    // Posicion de cada vecino en los bloques grandes, por registro y lado.
+    private Map<Long, Map<Integer, Integer>> positions;
+
+    /**
+     * Crea un grafo vacio sobre los archivos indicados, descartando su
+     * contenido previo.
+     *
+     * @param vertexFile Archivo para la tabla de vertices.
+     * @param edgeFile   Archivo para el area de aristas.
+     * @throws IOException Si los archivos no se pueden crear.
+     */
+    public MappedGraph(Path vertexFile, Path edgeFile) throws IOException {
+        this(new MappedIntBuffer(vertexFile, true), new MappedIntBuffer(edgeFile, true));
+
+        vertexTable.ensureCapacity(HEADER_INTS);
+        vertexTable.set(0, MAGIC);
+        writeHeader();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private MappedGraph(MappedIntBuffer vertexTable, MappedIntBuffer edges) {
+        this.vertexTable = vertexTable;
+        this.edges = edges;
+        this.vertices = new ArrayList<>();
+        this.ids = new HashMap<>();
+        this.freeBlocks = new ArrayDeque[Integer.SIZE];
+        this.positions = new HashMap<>();
+    }
+
+    /**
+     * Abre un grafo guardado previamente. Se mapean los archivos y se recorre
+     * la tabla de vertices para recuperar los bloques libres; la lista de
+     * adyacencia no se lee.
+     *
+     * @param vertexFile Archivo con la tabla de vertices.
+     * @param edgeFile   Archivo con el area de aristas.
+     * @param vertices   Los vertices ordenados por identificador, con null en
+     *                   la posicion de los vertices eliminados.
+     * @return El grafo abierto.
+     * @throws IOException Si los archivos no se pueden abrir o no son validos.
+     */
+    public static <T> MappedGraph<T> open(Path vertexFile, Path edgeFile, List<T> vertices) throws IOException {
+        MappedGraph<T> graph = new MappedGraph<>(new MappedIntBuffer(vertexFile, false),
+                new MappedIntBuffer(edgeFile, false));
+
+        if (graph.vertexTable.get(0) != MAGIC || graph.vertexTable.get(1) != vertices.size()) {
+            graph.close();
+            throw new IOException("El archivo de vertices no corresponde al diccionario");
+        }
+
+        graph.edgeTop = ((long) graph.vertexTable.get(3) << 32) | (graph.vertexTable.get(2) & 0xFFFFFFFFL);
+
+        for (int id = 0; id < vertices.size(); id++) {
+            T vertex = vertices.get(id);
+            graph.vertices.add(vertex);
+            if (vertex != null) {
+                graph.ids.put(vertex, id);
+            }
+        }
+
+        graph.rebuildFreeBlocks();
+        return graph;
+    }
+
+    /**
+     * Agrega un nuevo vertice al grafo.
+     *
+     * @param vertex El vertice que se agregará al grafo.
+     * @return True si el vertice se agrego con éxito, False en caso contrario.
+     */
+    public boolean add(T vertex) {
+        if (this.contains(vertex)) {
+            return false;
+        }
+
+        int id = vertices.size();
+        long record = record(id);
+
+        try {
+            vertexTable.ensureCapacity(record + RECORD_INTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        for (int i = 0; i < RECORD_INTS; i++) {
+            vertexTable.set(record + i, 0);
+        }
+
+        vertices.add(vertex);
+        ids.put(vertex, id);
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Agrega una arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se agrego, False en caso contrario.
+     */
+    public boolean connect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        Integer fromId = ids.get(from);
+        Integer toId = ids.get(to);
+
+        if (fromId == null || toId == null) {
+            return false;
+        }
+
+        if (indexOf(fromId, OUT, toId) != -1) {
+            return false;
+        }
+
+        append(fromId, OUT, toId);
+        append(toId, IN, fromId);
+        return true;
+    }
+
+    /**
+     * Elimina la arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se elimino, False en caso contrario.
+     */
+    public boolean disconnect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        Integer fromId = ids.get(from);
+        Integer toId = ids.get(to);
+
+        if (fromId == null || toId == null) {
+            return false;
+        }
+
+        if (!removeValue(fromId, OUT, toId)) {
+            return false;
+        }
+
+        removeValue(toId, IN, fromId);
+        return true;
+    }
+
+    /**
+     * Devuelve True si el grafo contiene el vertice, False en caso contrario.
+     *
+     * @param vertex El vertice a buscar.
+     * @return True si el vertice esta, False en caso contrario.
+     */
+    public boolean contains(T vertex) {
+        return ids.containsKey(vertex);
+    }
+
+    /**
+     * Devuelve una lista con los vertices que tienen una arista dirigida hacia to.
+     *
+     * @param to El vertice del que se obtendrán las aristas entrantes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getInwardEdges(T to) {
+        Integer id = ids.get(to);
+
+        if (id == null) {
+            return null;
+        }
+
+        List<T> inwardEdges = new ArrayList<>(size(id, IN));
+        readSide(id, IN, inwardEdges);
+        return inwardEdges;
+    }
+
+    /**
+     * Devuelve una lista con los vertices a los que from tiene una arista dirigida.
+     *
+     * @param from El vertice del que se obtendrán las aristas salientes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getOutwardEdges(T from) {
+        Integer id = ids.get(from);
+
+        if (id == null) {
+            return null;
+        }
+
+        List<T> outwardEdges = new ArrayList<>(size(id, OUT));
+        readSide(id, OUT, outwardEdges);
+        return outwardEdges;
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice leyendo directamente el
+     * archivo mapeado.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        Integer id = ids.get(vertex);
+
+        if (id != null) {
+            forEachInSide(id, OUT, action);
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice leyendo directamente el
+     * archivo mapeado.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        Integer id = ids.get(vertex);
+
+        if (id != null) {
+            forEachInSide(id, IN, action);
+        }
+    }
+
+    /**
+     * Devuelve una lista con los vértices adyacentes.
+     *
+     * @param vertex El vertice del que se obtendrán los adyacentes.
+     * @return Una lista con los vertices adyacentes.
+     */
+    public List<T> getVerticesConnectedTo(T vertex) {
+        Integer id = ids.get(vertex);
+
+        if (id == null) {
+            return null;
+        }
+
+        List<T> connectedVertices = new ArrayList<>(size(id, OUT) + size(id, IN));
+        readSide(id, OUT, connectedVertices);
+        readSide(id, IN, connectedVertices);
+        return connectedVertices;
+    }
+
+    /**
+     * Devuelve la lista de todos los vertices del grafo.
+     *
+     * @return La lista de todos los vertices del grafo.
+     */
+    public List<T> getAllVertices() {
+        return new ArrayList<>(ids.keySet());
+    }
+
+    /**
+     * Aplica la accion a cada vertice del grafo sin copiar el conjunto de
+     * vertices.
+     *
+     * @param action La accion a aplicar.
+     */
+    public void forEachVertex(Consumer<? super T> action) {
+        ids.keySet().forEach(action);
+    }
+
+    /**
+     * Devuelve un iterador de solo lectura sobre los vertices del grafo, sin
+     * copiarlos.
+     *
+     * @return El iterador.
+     */
+    public Iterator<T> vertexIterator() {
+        return Collections.unmodifiableSet(ids.keySet()).iterator();
+    }
+
+    /**
+     * Elimina el vertice del grafo. Su identificador queda libre y en la lista
+     * de vertices su posicion pasa a ser null.
+     *
+     * @param vertex El vertice a eliminar.
+     * @return True si el vertice se eliminó, False en caso contrario.
+     */
+    public boolean remove(T vertex) {
+        Integer id = ids.remove(vertex);
+
+        if (id == null) {
+            return false;
+        }
+
+        // Elimina el vertice de la lista de predecesores de sus sucesores.
+        long start = start(id, OUT);
+        for (int i = 0; i < size(id, OUT); i++) {
+            removeValue(edges.get(start + i), IN, id);
+        }
+
+        // Elimina el vertice de la lista de sucesores de sus predecesores.
+        start = start(id, IN);
+        for (int i = 0; i < size(id, IN); i++) {
+            removeValue(edges.get(start + i), OUT, id);
+        }
+
+        release(start(id, OUT), capacity(id, OUT));
+        release(start(id, IN), capacity(id, IN));
+        positions.remove(record(id) + OUT);
+        positions.remove(record(id) + IN);
+
+        long record = record(id);
+        for (int i = 0; i < RECORD_INTS; i++) {
+            vertexTable.set(record + i, 0);
+        }
+
+        vertices.set(id, null);
+        return true;
+    }
+
+    /**
+     * Devuelve la cantidad de vertices que contiene el grafo.
+     *
+     * @return La cantidad de vertices que contiene el grafo.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Devuelve un subgrafo en memoria del grafo original que contiene solo los
+     * vertices especificados en la coleccion.
+     *
+     * @param vertices La colección de vertices que se incluirán en el subgrafo.
+     * @return Un subgrafo que contiene solo los vertices.
+     */
+    public AdjacencyListGraph<T> subgraph(Collection<T> vertices) {
+        AdjacencyListGraph<T> subgraph = new AdjacencyListGraph<>();
+        Set<Integer> members = new HashSet<>();
+
+        for (T vertex : vertices) {
+            Integer id = ids.get(vertex);
+            if (id != null) {
+                subgraph.add(vertex);
+                members.add(id);
+            }
+        }
+
+        for (int id : members) {
+            long start = start(id, OUT);
+            for (int i = 0; i < size(id, OUT); i++) {
+                int to = edges.get(start + i);
+                if (members.contains(to)) {
+                    subgraph.connect(this.vertices.get(id), this.vertices.get(to));
+                }
+            }
+        }
+
+        return subgraph;
+    }
+
+    /**
+     * Devuelve la lista de vertices ordenada por identificador, necesaria para
+     * volver a abrir el grafo con open.
+     *
+     * @return La lista de vertices, con null en los eliminados.
+     */
+    public List<T> getVertexDictionary() {
+        return new ArrayList<>(vertices);
+    }
+
+    /**
+     * Devuelve el tope del area de aristas, en enteros. Solo crece cuando no
+     * hay un bloque libre de la capacidad necesaria.
+     *
+     * @return El tope del area de aristas.
+     */
+    public long edgeAreaSize() {
+        return edgeTop;
+    }
+
+    /**
+     * Escribe en disco los cambios pendientes.
+     */
+    public void force() {
+        writeHeader();
+        vertexTable.force();
+        edges.force();
+    }
+
+    /**
+     * Escribe los cambios y cierra los archivos.
+     *
+     * @throws IOException Si los archivos no se pueden cerrar.
+     */
+    public void close() throws IOException {
+        writeHeader();
+        vertexTable.close();
+        edges.close();
+    }
+
+    /**
+     * Guarda en el encabezado la cantidad de identificadores y el tope del
+     * area de aristas.
+     */
+    private void writeHeader() {
+        vertexTable.set(1, vertices.size());
+        vertexTable.set(2, (int) edgeTop);
+        vertexTable.set(3, (int) (edgeTop >>> 32));
+    }
+
+    private static long record(int id) {
+        return HEADER_INTS + (long) id * RECORD_INTS;
+    }
+
+    private long start(int id, int side) {
+        long record = record(id) + side;
+        return ((long) vertexTable.get(record + 1) << 32) | (vertexTable.get(record) & 0xFFFFFFFFL);
+    }
+
+    private int size(int id, int side) {
+        return vertexTable.get(record(id) + side + 2);
+    }
+
+    private int capacity(int id, int side) {
+        return vertexTable.get(record(id) + side + 3);
+    }
+
+    /**
+     * Agrega a la lista los vertices de un lado del bloque.
+     */
+    private void readSide(int id, int side, List<T> list) {
+        forEachInSide(id, side, list::add);
+    }
+
+    /**
+     * Aplica la accion a los vertices de un lado del bloque.
+     */
+    private void forEachInSide(int id, int side, Consumer<? super T> action) {
+        long start = start(id, side);
+        int size = size(id, side);
+
+        for (int i = 0; i < size; i++) {
+            action.accept(vertices.get(edges.get(start + i)));
+        }
+    }
+
+    /**
+     * Devuelve la posicion de value en el bloque, o -1 si no esta.
+     */
+    private int indexOf(int id, int side, int value) {
+        long start = start(id, side);
+        int size = size(id, side);
+
+        if (size > HASH_THRESHOLD) {
+            Integer position = index(id, side).get(value);
+            return position == null ? -1 : position;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (edges.get(start + i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Agrega value al final del bloque, moviendolo a uno mas grande si esta
+     * lleno.
+     */
+    private void append(int id, int side, int value) {
+        long record = record(id) + side;
+        long start = start(id, side);
+        int size = size(id, side);
+        int capacity = capacity(id, side);
+
+        if (size == capacity) {
+            int newCapacity = Math.max(MIN_CAPACITY, capacity * 2);
+            long newStart = allocate(newCapacity);
+
+            for (int i = 0; i < size; i++) {
+                edges.set(newStart + i, edges.get(start + i));
+            }
+
+            release(start, capacity);
+            start = newStart;
+
+            vertexTable.set(record, (int) start);
+            vertexTable.set(record + 1, (int) (start >>> 32));
+            vertexTable.set(record + 3, newCapacity);
+        }
+
+        edges.set(start + size, value);
+        vertexTable.set(record + 2, size + 1);
+
+        Map<Integer, Integer> index = positions.get(record);
+        if (index != null) {
+            index.put(value, size);
+        }
+    }
+
+    /**
+     * Elimina value del bloque moviendo el ultimo elemento a su posicion.
+     */
+    private boolean removeValue(int id, int side, int value) {
+        int index = indexOf(id, side, value);
+
+        if (index == -1) {
+            return false;
+        }
+
+        long start = start(id, side);
+        int last = size(id, side) - 1;
+        int moved = edges.get(start + last);
+
+        edges.set(start + index, moved);
+        vertexTable.set(record(id) + side + 2, last);
+
+        // Con pocos vecinos se vuelve a buscar recorriendo el bloque.
+        long key = record(id) + side;
+        Map<Integer, Integer> positionIndex = positions.get(key);
+        if (positionIndex != null && last <= HASH_THRESHOLD) {
+            positions.remove(key);
+        } else if (positionIndex != null) {
+            positionIndex.remove(value);
+            if (index != last) {
+                positionIndex.put(moved, index);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Devuelve el indice de posiciones de un bloque, construyendolo si no
+     * existe.
+     */
+    private Map<Integer, Integer> index(int id, int side) {
+        long key = record(id) + side;
+        Map<Integer, Integer> index = positions.get(key);
+
+        if (index == null) {
+            long start = start(id, side);
+            int size = size(id, side);
+
+            index = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                index.put(edges.get(start + i), i);
+            }
+            positions.put(key, index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Recupera los bloques libres a partir de los bloques en uso: todo hueco
+     * del area de aristas esta formado por bloques liberados, asi que se
+     * divide en bloques de capacidad potencia de dos.
+     */
+    private void rebuildFreeBlocks() {
+        List<long[]> used = new ArrayList<>();
+
+        for (int id = 0; id < vertices.size(); id++) {
+            if (vertices.get(id) == null) {
+                continue;
+            }
+            for (int side : new int[] { OUT, IN }) {
+                if (capacity(id, side) > 0) {
+                    used.add(new long[] { start(id, side), capacity(id, side) });
+                }
+            }
+        }
+
+        used.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long cursor = 0;
+        for (long[] block : used) {
+            releaseRange(cursor, block[0]);
+            cursor = block[0] + block[1];
+        }
+        releaseRange(cursor, edgeTop);
+    }
+
+    /**
+     * Marca como libre el rango [from, to) en bloques de capacidad potencia
+     * de dos.
+     */
+    private void releaseRange(long from, long to) {
+        while (from < to) {
+            int capacity = Integer.highestOneBit((int) Math.min(to - from, 1 << 30));
+            release(from, capacity);
+            from += capacity;
+        }
+    }
+
+    /**
+     * Reserva un bloque de la capacidad indicada, reutilizando uno libre si
+     * existe. Si no hay uno de esa capacidad se parte el libre mas chico que
+     * sea mayor.
+     */
+    private long allocate(int capacity) {
+        for (int sizeClass = Integer.numberOfTrailingZeros(capacity); sizeClass < freeBlocks.length; sizeClass++) {
+            ArrayDeque<Long> free = freeBlocks[sizeClass];
+
+            if (free != null && !free.isEmpty()) {
+                long start = free.pop();
+                releaseRange(start + capacity, start + (1L << sizeClass));
+                return start;
+            }
+        }
+
+        long start = edgeTop;
+        edgeTop += capacity;
+
+        try {
+            edges.ensureCapacity(edgeTop);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return start;
+    }
+
+    /**
+     * Marca un bloque como libre para reutilizarlo.
+     */
+    private void release(long start, int capacity) {
+        if (capacity == 0) {
+            return;
+        }
+
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        if (freeBlocks[sizeClass] == null) {
+            freeBlocks[sizeClass] = new ArrayDeque<>();
+        }
+        freeBlocks[sizeClass].push(start);
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arreglo de enteros guardado en un archivo mapeado a memoria.
+ *
+ * El archivo se mapea por segmentos de tamaño fijo porque un solo
+ * MappedByteBuffer no puede pasar de 2 GB; los segmentos se mapean a medida
+ * que el arreglo crece. El ultimo segmento empieza chico y se vuelve a mapear
+ * con el doble de tamaño hasta llegar al del segmento, asi un arreglo
+ * pequeño no ocupa un archivo de 256 MB. Los datos viven fuera del heap de
+ * Java.
+ */
+public class MappedIntBuffer implements AutoCloseable {
+
+    // 2^26 enteros por segmento, 256 MB.
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_INTS = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_INTS - 1;
+
+    // Tamaño inicial del ultimo segmento, 4 KB.
+    private static final long MIN_SEGMENT_INTS = 1L << 10;
+
+    private FileChannel channel;
+    private List<MappedByteBuffer> segments;
+
+    /**
+     * Abre el archivo y mapea los segmentos que ya contiene.
+     *
+     * @param file     El archivo de respaldo.
+     * @param truncate True si se descarta el contenido previo del archivo.
+     * @throws IOException Si el archivo no se puede abrir o mapear.
+     */
+    public MappedIntBuffer(Path file, boolean truncate) throws IOException {
+        if (truncate) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        segments = new ArrayList<>();
+        ensureCapacity(channel.size() / Integer.BYTES);
+    }
+
+    /**
+     * Garantiza que existan al menos capacity posiciones mapeadas.
+     *
+     * @param capacity La cantidad de enteros requerida.
+     * @throws IOException Si no se puede extender el archivo.
+     */
+    public void ensureCapacity(long capacity) throws IOException {
+        while (mappedInts() < capacity) {
+            int last = segments.size() - 1;
+            long lastInts = last == -1 ? 0 : segments.get(last).capacity() / Integer.BYTES;
+
+            if (last != -1 && lastInts < SEGMENT_INTS) {
+                // El ultimo segmento no esta completo: se mapea de nuevo mas grande
+                long needed = capacity - (long) last * SEGMENT_INTS;
+                segments.set(last, map(last, Math.min(SEGMENT_INTS, Math.max(lastInts * 2, needed))));
+            } else {
+                long needed = capacity - (long) segments.size() * SEGMENT_INTS;
+                segments.add(map(segments.size(), Math.min(SEGMENT_INTS, Math.max(MIN_SEGMENT_INTS, needed))));
+            }
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de enteros mapeados.
+     */
+    private long mappedInts() {
+        int last = segments.size() - 1;
+
+        if (last == -1) {
+            return 0;
+        }
+
+        return (long) last * SEGMENT_INTS + segments.get(last).capacity() / Integer.BYTES;
+    }
+
+    /**
+     * Mapea los primeros ints enteros del segmento indicado, extendiendo el
+     * archivo si hace falta.
+     */
+    private MappedByteBuffer map(int segment, long ints) throws IOException {
+        long position = (long) segment * SEGMENT_INTS * Integer.BYTES;
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, ints * Integer.BYTES);
+    }
+
+    /**
+     * Devuelve el entero guardado en la posicion.
+     *
+     * @param index La posicion.
+     * @return El valor guardado.
+     */
+    public int get(long index) {
+        return segments.get((int) (index >>> SEGMENT_SHIFT)).getInt((int) (index & SEGMENT_MASK) * Integer.BYTES);
+    }
+
+    /**
+     * Guarda un entero en la posicion.
+     *
+     * @param index La posicion.
+     * @param value El valor a guardar.
+     */
+    public void set(long index, int value) {
+        segments.get((int) (index >>> SEGMENT_SHIFT)).putInt((int) (index & SEGMENT_MASK) * Integer.BYTES, value);
+    }
+
+    /**
+     * Escribe en disco los cambios pendientes.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Escribe los cambios y cierra el archivo. Los segmentos se liberan cuando
+     * el recolector de basura los descarta.
+     *
+     * @throws IOException Si el archivo no se puede cerrar.
+     */
+    public void close() throws IOException {
+        force();
+        segments.clear();
+        channel.close();
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Vista perezosa de un subgrafo.
+ *
+ * No copia vertices ni aristas: cada consulta se responde sobre el grafo
+ * original, filtrando con un conjunto hash de los vertices miembros. Los
+ * cambios del grafo original se ven a traves de la vista. La vista es de
+ * solo lectura; materialize() devuelve una copia independiente cuando hace
+ * falta modificarla.
+ */
+public class SubgraphView<T> implements Graph<T> {
+
+    private Graph<T> parent;
+    private Set<T> members;
+
+    /**
+     * Crea la vista. Si la coleccion ya es un conjunto se usa directamente,
+     * sin copiarla.
+     *
+     * @param parent   El grafo original.
+     * @param vertices Los vertices que forman el subgrafo.
+     */
+    public SubgraphView(Graph<T> parent, Collection<T> vertices) {
+        this.parent = parent;
+
+        if (vertices instanceof Set) {
+            this.members = (Set<T>) vertices;
+        } else {
+            this.members = new HashSet<>(vertices);
+        }
+    }
+
+    /**
+     * La vista es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean add(T vertex) {
+        throw new UnsupportedOperationException("La vista del subgrafo es de solo lectura");
+    }
+
+    /**
+     * La vista es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean connect(T from, T to) {
+        throw new UnsupportedOperationException("La vista del subgrafo es de solo lectura");
+    }
+
+    /**
+     * La vista es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean disconnect(T from, T to) {
+        throw new UnsupportedOperationException("La vista del subgrafo es de solo lectura");
+    }
+
+    /**
+     * Devuelve True si el vertice es miembro de la vista y sigue en el grafo
+     * original, False en caso contrario.
+     *
+     * @param vertex El vertice a buscar.
+     * @return True si el vertice esta, False en caso contrario.
+     */
+    public boolean contains(T vertex) {
+        return members.contains(vertex) && parent.contains(vertex);
+    }
+
+    /**
+     * Devuelve una lista con los vertices de la vista que tienen una arista
+     * dirigida hacia to.
+     *
+     * @param to El vertice del que se obtendrán las aristas entrantes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getInwardEdges(T to) {
+
+        if (!this.contains(to)) {
+            return null;
+        }
+
+        List<T> inwardEdges = new ArrayList<>();
+        forEachInNeighbor(to, inwardEdges::add);
+        return inwardEdges;
+    }
+
+    /**
+     * Devuelve una lista con los vertices de la vista a los que from tiene una
+     * arista dirigida.
+     *
+     * @param from El vertice del que se obtendrán las aristas salientes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getOutwardEdges(T from) {
+
+        if (!this.contains(from)) {
+            return null;
+        }
+
+        List<T> outwardEdges = new ArrayList<>();
+        forEachOutNeighbor(from, outwardEdges::add);
+        return outwardEdges;
+    }
+
+    /**
+     * Devuelve una lista con los vértices adyacentes dentro de la vista.
+     *
+     * @param vertex El vertice del que se obtendrán los adyacentes.
+     * @return Una lista con los vertices adyacentes.
+     */
+    public List<T> getVerticesConnectedTo(T vertex) {
+
+        if (!this.contains(vertex)) {
+            return null;
+        }
+
+        List<T> connectedVertices = new ArrayList<>();
+        forEachNeighbor(vertex, connectedVertices::add);
+        return connectedVertices;
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice que pertenece a la vista.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        if (members.contains(vertex)) {
+            parent.forEachOutNeighbor(vertex, to -> {
+                if (members.contains(to)) {
+                    action.accept(to);
+                }
+            });
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice que pertenece a la vista.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        if (members.contains(vertex)) {
+            parent.forEachInNeighbor(vertex, from -> {
+                if (members.contains(from)) {
+                    action.accept(from);
+                }
+            });
+        }
+    }
+
+    /**
+     * Aplica la accion a cada vertice de la vista.
+     *
+     * @param action La accion a aplicar.
+     */
+    public void forEachVertex(Consumer<? super T> action) {
+        for (T vertex : members) {
+            if (parent.contains(vertex)) {
+                action.accept(vertex);
+            }
+        }
+    }
+
+    /**
+     * Devuelve la lista de todos los vertices de la vista.
+     *
+     * @return La lista de todos los vertices de la vista.
+     */
+    public List<T> getAllVertices() {
+        List<T> vertices = new ArrayList<>();
+        forEachVertex(vertices::add);
+        return vertices;
+    }
+
+    /**
+     * La vista es de solo lectura.
+     *
+     * @throws UnsupportedOperationException Siempre.
+     */
+    public boolean remove(T vertex) {
+        throw new UnsupportedOperationException("La vista del subgrafo es de solo lectura");
+    }
+
+    /**
+     * Devuelve la cantidad de vertices de la vista.
+     *
+     * @return La cantidad de vertices de la vista.
+     */
+    public int size() {
+        int size = 0;
+        for (T vertex : members) {
+            if (parent.contains(vertex)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Devuelve otra vista, sobre el mismo grafo original, con los vertices de
+     * esta vista que estan en la coleccion.
+     *
+     * @param vertices La colección de vertices que se incluirán en el subgrafo.
+     * @return Una vista que contiene solo los vertices.
+     */
+    public SubgraphView<T> subgraph(Collection<T> vertices) {
+        Set<T> selected = new HashSet<>();
+
+        for (T vertex : vertices) {
+            if (members.contains(vertex)) {
+                selected.add(vertex);
+            }
+        }
+
+        return new SubgraphView<>(parent, selected);
+    }
+
+    /**
+     * Copia la vista en un grafo nuevo e independiente del original.
+     *
+     * @return Un grafo con los vertices y aristas de la vista.
+     */
+    public AdjacencyListGraph<T> materialize() {
+        AdjacencyListGraph<T> graph = new AdjacencyListGraph<>(members.size());
+
+        forEachVertex(graph::add);
+        forEachVertex(from -> forEachOutNeighbor(from, to -> graph.connect(from, to)));
+
+        return graph;
+    }
+}
@@ -0,0 +1,449 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Grafo dirigido con copias versionadas (snapshots) baratas.
+ *
+ * Cada vertice recibe un identificador entero permanente y su registro
+ * (sucesores y predecesores) vive en bloques de CHUNK_SIZE registros. Los
+ * bloques, los registros y sus listas llevan la version en que se crearon.
+ * snapshot() solo guarda la raiz actual y avanza la version, asi que es
+ * O(1); despues, la primera escritura sobre un bloque o registro de una
+ * version anterior lo copia antes de modificarlo. Las copias vivas comparten
+ * todo lo que no cambio, y la memoria crece con los vertices modificados.
+ *
+ * Las copias se pueden leer desde otros hilos mientras este grafo cambia,
+ * pero el grafo en si admite un solo escritor a la vez.
+ */
+public class VersionedGraph<T> implements Graph<T> {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * Registro de un vertice. Solo se modifica si su version es la actual.
+     */
+    static class Record<T> {
+        T vertex;
+        AdjacencySet<T> successors;
+        AdjacencySet<T> predecessors;
+        int version;
+
+        // False si la lista se comparte con un registro de otra version.
+        boolean ownsSuccessors;
+        boolean ownsPredecessors;
+
+        Record(T vertex, int version) {
+            this.vertex = vertex;
+            this.successors = new AdjacencySet<>();
+            this.predecessors = new AdjacencySet<>();
+            this.version = version;
+            this.ownsSuccessors = true;
+            this.ownsPredecessors = true;
+        }
+
+        Record(Record<T> other, int version) {
+            this.vertex = other.vertex;
+            this.successors = other.successors;
+            this.predecessors = other.predecessors;
+            this.version = version;
+        }
+
+        AdjacencySet<T> mutableSuccessors() {
+            if (!ownsSuccessors) {
+                successors = copy(successors);
+                ownsSuccessors = true;
+            }
+            return successors;
+        }
+
+        AdjacencySet<T> mutablePredecessors() {
+            if (!ownsPredecessors) {
+                predecessors = copy(predecessors);
+                ownsPredecessors = true;
+            }
+            return predecessors;
+        }
+
+        private static <T> AdjacencySet<T> copy(AdjacencySet<T> set) {
+            AdjacencySet<T> copy = new AdjacencySet<>(set.size());
+            for (int i = 0; i < set.size(); i++) {
+                copy.add(set.get(i));
+            }
+            return copy;
+        }
+    }
+
+    /**
+     * Bloque de registros consecutivos. Solo se modifica si su version es la
+     * actual.
+     */
+    static class Chunk<T> {
+        Record<T>[] records;
+        int version;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Chunk(int version) {
+            this.records = new Record[CHUNK_SIZE];
+            this.version = version;
+        }
+
+        Chunk(Chunk<T> other, int version) {
+            this.records = other.records.clone();
+            this.version = version;
+        }
+    }
+
+    // Diccionario de solo agregar: un vertice conserva su identificador aunque
+    // se elimine, y las copias lo consultan sin copiarlo.
+    private Map<T, Integer> ids;
+    private int nextId;
+
+    private Chunk<T>[] root;
+    private int rootVersion;
+
+    private int version;
+    private int size;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public VersionedGraph() {
+        ids = new ConcurrentHashMap<>();
+        root = new Chunk[1];
+    }
+
+    /**
+     * Devuelve una copia de solo lectura del estado actual del grafo en O(1).
+     *
+     * @return La copia fijada en la version actual.
+     */
+    public GraphSnapshot<T> snapshot() {
+        GraphSnapshot<T> snapshot = new GraphSnapshot<>(ids, root, nextId, size, version);
+        version++;
+        return snapshot;
+    }
+
+    /**
+     * Devuelve la version que tomara la proxima copia.
+     *
+     * @return La version actual.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Agrega un nuevo vertice al grafo.
+     *
+     * @param vertex El vertice que se agregará al grafo.
+     * @return True si el vertice se agrego con éxito, False en caso contrario.
+     */
+    public boolean add(T vertex) {
+        Integer id = ids.get(vertex);
+
+        if (id == null) {
+            id = nextId++;
+            ids.put(vertex, id);
+        } else if (record(id) != null) {
+            return false;
+        }
+
+        mutableChunk(id).records[id & CHUNK_MASK] = new Record<>(vertex, version);
+        size++;
+        return true;
+    }
+
+    /**
+     * Agrega una arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se agrego, False en caso contrario.
+     */
+    public boolean connect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        Integer fromId = ids.get(from);
+        Integer toId = ids.get(to);
+
+        if (fromId == null || toId == null || record(fromId) == null || record(toId) == null) {
+            return false;
+        }
+
+        if (record(fromId).successors.contains(to)) {
+            return false;
+        }
+
+        mutableRecord(fromId).mutableSuccessors().add(to);
+        mutableRecord(toId).mutablePredecessors().add(from);
+        return true;
+    }
+
+    /**
+     * Elimina la arista del vertice from al vertice to.
+     *
+     * @param from El vertice desde el que se dirige la arista.
+     * @param to   El vertice al que se dirige la arista.
+     * @return True si la arista se elimino, False en caso contrario.
+     */
+    public boolean disconnect(T from, T to) {
+
+        if (from.equals(to)) {
+            return false;
+        }
+
+        Integer fromId = ids.get(from);
+        Integer toId = ids.get(to);
+
+        if (fromId == null || toId == null || record(fromId) == null || record(toId) == null) {
+            return false;
+        }
+
+        if (!record(fromId).successors.contains(to)) {
+            return false;
+        }
+
+        mutableRecord(fromId).mutableSuccessors().remove(to);
+        mutableRecord(toId).mutablePredecessors().remove(from);
+        return true;
+    }
+
+    /**
+     * Devuelve True si el grafo contiene el vertice, False en caso contrario.
+     *
+     * @param vertex El vertice a buscar.
+     * @return True si el vertice esta, False en caso contrario.
+     */
+    public boolean contains(T vertex) {
+        return record(vertex) != null;
+    }
+
+    /**
+     * Devuelve una copia con los vertices que tienen una arista dirigida hacia
+     * to. Se puede modificar el grafo mientras se recorre la copia.
+     *
+     * @param to El vertice del que se obtendrán las aristas entrantes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getInwardEdges(T to) {
+        Record<T> record = record(to);
+
+        if (record == null) {
+            return null;
+        }
+
+        return new ArrayList<>(record.predecessors);
+    }
+
+    /**
+     * Devuelve una copia con los vertices a los que from tiene una arista
+     * dirigida. Se puede modificar el grafo mientras se recorre la copia.
+     *
+     * @param from El vertice del que se obtendrán las aristas salientes.
+     * @return Una lista con los vertices.
+     */
+    public List<T> getOutwardEdges(T from) {
+        Record<T> record = record(from);
+
+        if (record == null) {
+            return null;
+        }
+
+        return new ArrayList<>(record.successors);
+    }
+
+    /**
+     * Devuelve una lista con los vértices adyacentes.
+     *
+     * @param vertex El vertice del que se obtendrán los adyacentes.
+     * @return Una lista con los vertices adyacentes.
+     */
+    public List<T> getVerticesConnectedTo(T vertex) {
+        Record<T> record = record(vertex);
+
+        if (record == null) {
+            return null;
+        }
+
+        List<T> connectedVertices = new ArrayList<>(record.successors.size() + record.predecessors.size());
+        connectedVertices.addAll(record.successors);
+        connectedVertices.addAll(record.predecessors);
+        return connectedVertices;
+    }
+
+    /**
+     * Aplica la accion a cada sucesor del vertice.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachOutNeighbor(T vertex, Consumer<? super T> action) {
+        Record<T> record = record(vertex);
+
+        if (record != null) {
+            for (int i = 0; i < record.successors.size(); i++) {
+                action.accept(record.successors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Aplica la accion a cada predecesor del vertice.
+     *
+     * @param vertex El vertice.
+     * @param action La accion a aplicar.
+     */
+    public void forEachInNeighbor(T vertex, Consumer<? super T> action) {
+        Record<T> record = record(vertex);
+
+        if (record != null) {
+            for (int i = 0; i < record.predecessors.size(); i++) {
+                action.accept(record.predecessors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Aplica la accion a cada vertice del grafo.
+     *
+     * @param action La accion a aplicar.
+     */
+    public void forEachVertex(Consumer<? super T> action) {
+        GraphSnapshot.forEachVertex(root, nextId, action);
+    }
+
+    /**
+     * Devuelve la lista de todos los vertices del grafo.
+     *
+     * @return La lista de todos los vertices del grafo.
+     */
+    public List<T> getAllVertices() {
+        List<T> vertices = new ArrayList<>(size);
+        forEachVertex(vertices::add);
+        return vertices;
+    }
+
+    /**
+     * Elimina el vertice del grafo. Las copias tomadas antes lo conservan.
+     *
+     * @param vertex El vertice a eliminar.
+     * @return True si el vertice se eliminó, False en caso contrario.
+     */
+    public boolean remove(T vertex) {
+        Record<T> record = record(vertex);
+
+        if (record == null) {
+            return false;
+        }
+
+        // Elimina el vertice de la lista de predecesores de sus sucesores.
+        for (int i = 0; i < record.successors.size(); i++) {
+            T to = record.successors.get(i);
+            mutableRecord(ids.get(to)).mutablePredecessors().remove(vertex);
+        }
+
+        // Elimina el vertice de la lista de sucesores de sus predecesores.
+        for (int i = 0; i < record.predecessors.size(); i++) {
+            T from = record.predecessors.get(i);
+            mutableRecord(ids.get(from)).mutableSuccessors().remove(vertex);
+        }
+
+        int id = ids.get(vertex);
+        mutableChunk(id).records[id & CHUNK_MASK] = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Devuelve la cantidad de vertices que contiene el grafo.
+     *
+     * @return La cantidad de vertices que contiene el grafo.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Devuelve una subgrafo del grafo original que contiene solo los vertices
+     * especificados en la coleccion.
+     *
+     * @param vertices La colección de vertices que se incluirán en el subgrafo.
+     * @return Un subgrafo que contiene solo los vertices.
+     */
+    public AdjacencyListGraph<T> subgraph(Collection<T> vertices) {
+        return subgraphView(vertices).materialize();
+    }
+
+    /**
+     * Devuelve el registro del vertice en la version actual, o null.
+     */
+    private Record<T> record(T vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? null : record(id);
+    }
+
+    private Record<T> record(int id) {
+        return GraphSnapshot.record(root, nextId, id);
+    }
+
+    /**
+     * Devuelve la raiz, copiandola si pertenece a una version anterior.
+     */
+    private Chunk<T>[] mutableRoot() {
+        if (rootVersion != version) {
+            root = root.clone();
+            rootVersion = version;
+        }
+        return root;
+    }
+
+    /**
+     * Devuelve el bloque del identificador, creandolo o copiandolo si hace
+     * falta.
+     */
+    private Chunk<T> mutableChunk(int id) {
+        int index = id >>> CHUNK_SHIFT;
+        Chunk<T>[] chunks = mutableRoot();
+
+        if (index >= chunks.length) {
+            root = Arrays.copyOf(chunks, Math.max(index + 1, chunks.length * 2));
+            chunks = root;
+        }
+
+        Chunk<T> chunk = chunks[index];
+
+        if (chunk == null) {
+            chunk = new Chunk<>(version);
+            chunks[index] = chunk;
+        } else if (chunk.version != version) {
+            chunk = new Chunk<>(chunk, version);
+            chunks[index] = chunk;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Devuelve el registro del identificador, copiandolo si pertenece a una
+     * version anterior.
+     */
+    private Record<T> mutableRecord(int id) {
+        Chunk<T> chunk = mutableChunk(id);
+        Record<T> record = chunk.records[id & CHUNK_MASK];
+
+        if (record.version != version) {
+            record = new Record<>(record, version);
+            chunk.records[id & CHUNK_MASK] = record;
+        }
+
+        return record;
+    }
+}
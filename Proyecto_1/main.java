@@ -1,10 +1,16 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 //Correr de la siguiente forma java -ea main.java
 
 public class main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
         AdjacencyListGraph<String> graph = new AdjacencyListGraph<>();
 
@@ -37,6 +43,7 @@ public class main {
         assert !graph.connect("Z", "C");
         assert !graph.connect("B", "X");
         assert !graph.connect("Z", "X");
+        assert !graph.connect(null, "C");
 
         // Disconect()
         assert graph.disconnect("B", "D");
@@ -47,6 +54,7 @@ public class main {
         assert !graph.disconnect("Z", "C");
         assert !graph.disconnect("B", "X");
         assert !graph.disconnect("Z", "X");
+        assert !graph.disconnect(null, "C");
 
         // Contains()
         assert graph.contains("A");
@@ -76,7 +84,9 @@ public class main {
         assert null == graph.getVerticesConnectedTo("Z");
 
         // remove()
+        assert graph.connect("D", "A");
         assert graph.remove("D");
+        assert !graph.getInwardEdges("A").contains("D");
         assert !graph.contains("D");
         assert !graph.remove("D");
 
@@ -93,12 +103,221 @@ public class main {
         assert subgraph.contains("C");
         assert !subgraph.contains("B");
 
+        // subgraphView()
+        SubgraphView<String> view = graph.subgraphView(list);
+        assert view.contains("A");
+        assert !view.contains("B");
+        assert view.getOutwardEdges("A").contains("C");
+        assert !view.getOutwardEdges("A").contains("B");
+        assert view.size() == 2;
+        assert graph.connect("C", "A");
+        assert view.getInwardEdges("A").contains("C");
+        assert graph.disconnect("C", "A");
+
+        AdjacencyListGraph<String> materialized = view.materialize();
+        assert materialized.getOutwardEdges("A").contains("C");
+        assert materialized.size() == 2;
+
         // getVertices()
         List<String> vertices = graph.getAllVertices();
         assert vertices.contains("A");
         assert vertices.contains("B");
         assert vertices.contains("C");
 
+        // forEachNeighbor()
+        List<String> neighbors = new ArrayList<>();
+        graph.forEachNeighbor("B", neighbors::add);
+        assert neighbors.contains("A");
+        assert neighbors.contains("C");
+        graph.forEachNeighbor("Z", neighbors::add);
+        assert neighbors.size() == 2;
+
+        // forEachVertex()
+        List<String> visited = new ArrayList<>();
+        graph.forEachVertex(visited::add);
+        assert visited.size() == graph.size();
+
+        // getOutwardEdges() devuelve una copia que no modifica el grafo
+        graph.getOutwardEdges("A").add("D");
+        assert !graph.getOutwardEdges("A").contains("D");
+
+        // getInwardEdges() permite desconectar mientras se recorre
+        AdjacencyListGraph<Integer> star = new AdjacencyListGraph<>();
+        star.add(0);
+        for (int i = 1; i <= 29; i++) {
+            star.add(i);
+            star.connect(i, 0);
+        }
+        for (Integer from : star.getInwardEdges(0)) {
+            assert star.disconnect(from, 0);
+        }
+        assert star.getInwardEdges(0).isEmpty();
+        for (int i = 1; i <= 29; i++) {
+            assert star.getOutwardEdges(i).isEmpty();
+        }
+
+        // connect() y disconnect() antes y despues del umbral del indice hash
+        AdjacencyListGraph<Integer> hub = new AdjacencyListGraph<>();
+        hub.add(0);
+        for (int i = 1; i <= 40; i++) {
+            hub.add(i);
+            assert hub.connect(0, i);
+            assert !hub.connect(0, i);
+            assert !hub.connect(0, 0);
+            assert hub.getOutwardEdges(0).size() == i;
+            assert hub.getInwardEdges(i).contains(0);
+        }
+        for (int i = 40; i >= 1; i -= 3) {
+            assert hub.disconnect(0, i);
+            assert !hub.disconnect(0, i);
+            assert !hub.getOutwardEdges(0).contains(i);
+            assert !hub.getInwardEdges(i).contains(0);
+        }
+        for (int i = 1; i <= 40; i++) {
+            assert hub.getOutwardEdges(0).contains(i) == ((40 - i) % 3 != 0);
+        }
+        for (int i = 40; i >= 1; i -= 3) {
+            assert hub.connect(0, i);
+        }
+        assert hub.getOutwardEdges(0).size() == 40;
+
+        // AdjacencySet en el umbral y con iteradores que fallan rapido
+        AdjacencySet<Integer> set = new AdjacencySet<>();
+        for (int i = 0; i < 16; i++) {
+            assert set.add(i);
+        }
+        assert !set.add(15);
+        assert set.add(16);
+        assert !set.add(16);
+        assert set.size() == 17 && set.contains(0) && set.contains(16);
+        assert set.remove(Integer.valueOf(0));
+        assert !set.contains(0) && set.contains(16) && set.size() == 16;
+        try {
+            for (Integer element : set) {
+                set.remove(element);
+            }
+            assert false;
+        } catch (ConcurrentModificationException e) {
+        }
+        set.clear();
+        assert set.isEmpty() && !set.contains(16) && set.add(16);
+
+        // connectAll()
+        AdjacencyListGraph<String> bulk = new AdjacencyListGraph<>(3);
+        assert bulk.addAll(List.of("A", "B", "C"));
+        assert !bulk.addAll(List.of("A"));
+        assert bulk.connectAll(List.of("A", "A", "B", "B", "Z"), List.of("B", "B", "B", "C", "A")) == 2;
+        assert bulk.getOutwardEdges("A").contains("B");
+        assert bulk.getInwardEdges("C").contains("B");
+        assert bulk.connectAll(List.of("A"), List.of("B")) == 0;
+
+        // toCsr()
+        CsrGraph<String> csr = graph.toCsr(true);
+        assert csr.vertexCount() == 3;
+        assert csr.edgeCount() == 3;
+        assert csr.outDegree(csr.getId("A")) == 2;
+        assert csr.inDegree(csr.getId("C")) == 2;
+        assert csr.getId("Z") == -1;
+
+        // snapshot()
+        VersionedGraph<String> versioned = new VersionedGraph<>();
+        assert versioned.add("A");
+        assert versioned.add("B");
+        assert versioned.connect("A", "B");
+        GraphSnapshot<String> snapshot = versioned.snapshot();
+        assert versioned.disconnect("A", "B");
+        assert versioned.remove("B");
+        assert snapshot.getOutwardEdges("A").contains("B");
+        assert snapshot.contains("B");
+        assert !versioned.contains("B");
+        assert versioned.getOutwardEdges("A").isEmpty();
+
+        // getInwardEdges() de VersionedGraph permite desconectar mientras se recorre
+        VersionedGraph<Integer> versionedStar = new VersionedGraph<>();
+        versionedStar.add(0);
+        for (int i = 1; i <= 29; i++) {
+            versionedStar.add(i);
+            versionedStar.connect(i, 0);
+        }
+        List<Integer> predecessors = versionedStar.getInwardEdges(0);
+        for (int i = 0; i < predecessors.size(); i++) {
+            assert versionedStar.disconnect(predecessors.get(i), 0);
+        }
+        assert versionedStar.getInwardEdges(0).isEmpty();
+        for (int i = 1; i <= 29; i++) {
+            assert versionedStar.getOutwardEdges(i).isEmpty();
+        }
+
+        // MappedGraph: add(), connect() y disconnect() con bloques que crecen
+        Path vertexFile = Files.createTempFile("main", ".vtx");
+        Path edgeFile = Files.createTempFile("main", ".adj");
+        MappedGraph<Integer> mapped = new MappedGraph<>(vertexFile, edgeFile);
+
+        for (int v = 0; v < 100; v++) {
+            assert mapped.add(v);
+        }
+        assert !mapped.add(0);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 1; i < 100; i++) {
+            assert mapped.connect(0, i);
+            assert !mapped.connect(0, i);
+            expected.add(i);
+        }
+        assert !mapped.connect(0, 0);
+        assert !mapped.connect(0, 500);
+        assert new HashSet<>(mapped.getOutwardEdges(0)).equals(expected);
+        assert mapped.getInwardEdges(50).equals(List.of(0));
+
+        for (int i = 99; i > 0; i -= 2) {
+            assert mapped.disconnect(0, i);
+            assert !mapped.disconnect(0, i);
+            assert mapped.getInwardEdges(i).isEmpty();
+            expected.remove(i);
+        }
+        assert new HashSet<>(mapped.getOutwardEdges(0)).equals(expected);
+        assert mapped.connect(0, 99);
+        expected.add(99);
+
+        // remove() y volver a abrir
+        assert mapped.remove(50);
+        expected.remove(50);
+        List<Integer> dictionary = mapped.getVertexDictionary();
+        mapped.close();
+
+        mapped = MappedGraph.open(vertexFile, edgeFile, dictionary);
+        assert mapped.size() == 99;
+        assert !mapped.contains(50);
+        assert new HashSet<>(mapped.getOutwardEdges(0)).equals(expected);
+        assert mapped.getInwardEdges(99).equals(List.of(0));
+        assert !mapped.connect(0, 2);
+        assert mapped.disconnect(0, 2);
+        assert mapped.connect(0, 2);
+        mapped.close();
+
+        // Los bloques liberados se reutilizan despues de volver a abrir
+        mapped = new MappedGraph<>(vertexFile, edgeFile);
+        mapped.add(0);
+        mapped.add(1);
+        mapped.add(2);
+        assert mapped.connect(0, 1);
+        assert mapped.remove(1);
+        long top = mapped.edgeAreaSize();
+        dictionary = mapped.getVertexDictionary();
+        mapped.close();
+
+        mapped = MappedGraph.open(vertexFile, edgeFile, dictionary);
+        assert mapped.connect(2, 0);
+        assert mapped.edgeAreaSize() == top + 4;
+        mapped.close();
+
+        // Un grafo pequeño no reserva segmentos completos
+        assert Files.size(vertexFile) < 1 << 20;
+        assert Files.size(edgeFile) < 1 << 20;
+
+        Files.delete(vertexFile);
+        Files.delete(edgeFile);
+
         System.out.println("Todos los casos funcionan");
 
     }